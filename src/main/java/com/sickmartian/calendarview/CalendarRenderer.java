@@ -0,0 +1,36 @@
+package com.sickmartian.calendarview;
+
+import android.graphics.Paint;
+import android.graphics.drawable.Drawable;
+
+/**
+ * What the views need to draw the calendar itself (children are drawn by the framework).
+ * Every view draws through one of these, so the same layout can go to a {@link CanvasRenderer}
+ * on screen, a {@link RecordingRenderer} to check what is drawn, or a {@link SvgRenderer}.
+ */
+public interface CalendarRenderer {
+
+    void drawPaint(Paint paint);
+
+    void drawRect(float left, float top, float right, float bottom, Paint paint);
+
+    void drawLine(float startX, float startY, float stopX, float stopY, Paint paint);
+
+    /**
+     * Draws many lines in one call, every 4 values of points are a line (x0 y0 x1 y1)
+     * and count is the number of values used
+     */
+    void drawLines(float[] points, int count, Paint paint);
+
+    void drawCircle(float centerX, float centerY, float radius, Paint paint);
+
+    void drawText(String text, float x, float y, Paint paint);
+
+    void drawDrawable(Drawable drawable, int left, int top, int right, int bottom);
+
+    int save();
+
+    void clipRect(float left, float top, float right, float bottom);
+
+    void restoreToCount(int saveCount);
+}
@@ -0,0 +1,284 @@
+package com.sickmartian.calendarview;
+
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Puts the items of several sources (like personal, team and holiday calendars) in the cells of
+ * a view, merged by start time. Every source is already sorted, so instead of concatenating and
+ * sorting them the days are filled with a k-way merge: a heap holds the next item of every
+ * source and the smallest one goes out, streaming the days in order.
+ * The cells every source has items on are tracked, so turning a source on or off only merges
+ * those cells again.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class CalendarSourceMerger {
+
+    public interface Source {
+        /**
+         * Items have to be sorted by day and then by start minute
+         */
+        int getItemCount();
+
+        int getDayKey(int position);
+
+        /**
+         * @return Minutes since the beginning of the day
+         */
+        int getStartMinute(int position);
+
+        /**
+         * The same view should be given for the same item, so views already in place are kept
+         */
+        View getView(int position, CalendarView parent);
+    }
+
+    private final CalendarView mCalendarView;
+    private Source[] mSources = new Source[0];
+    private boolean[] mEnabled = new boolean[0];
+    private long[] mTouchedCells = new long[0]; // One bit per cell with items of the source
+    private int mBoundFirstDayKey = DayKey.NONE;
+    private int mBoundCellCount;
+
+    // Merge state, the heap holds sources ordered by the item on their cursor
+    private int[] mHeap = new int[0];
+    private int mHeapSize;
+    private int[] mCursors = new int[0];
+    private int[] mEnds = new int[0];
+    private int[] mHeadDayKeys = new int[0];
+    private int[] mHeadStarts = new int[0];
+    private final ArrayList<View> mMerged = new ArrayList<>();
+
+    public CalendarSourceMerger(CalendarView calendarView) {
+        mCalendarView = calendarView;
+    }
+
+    /**
+     * @return The index of the source, sources added first go first on the same start minute
+     */
+    public int addSource(Source source) {
+        int index = mSources.length;
+        int sourceCount = index + 1;
+        mSources = Arrays.copyOf(mSources, sourceCount);
+        mEnabled = Arrays.copyOf(mEnabled, sourceCount);
+        mTouchedCells = Arrays.copyOf(mTouchedCells, sourceCount);
+        mHeap = new int[sourceCount];
+        mCursors = new int[sourceCount];
+        mEnds = new int[sourceCount];
+        mHeadDayKeys = new int[sourceCount];
+        mHeadStarts = new int[sourceCount];
+
+        mSources[index] = source;
+        mEnabled[index] = true;
+        if (isBound()) {
+            mTouchedCells[index] = findTouchedCells(index);
+            mergeCells(mTouchedCells[index]);
+        }
+        return index;
+    }
+
+    public int getSourceCount() {
+        return mSources.length;
+    }
+
+    public boolean isSourceEnabled(int sourceIndex) {
+        return mEnabled[sourceIndex];
+    }
+
+    /**
+     * Shows or hides the items of a source, only the cells it has items on are merged again
+     */
+    public void setSourceEnabled(int sourceIndex, boolean enabled) {
+        if (mEnabled[sourceIndex] == enabled) return;
+
+        mEnabled[sourceIndex] = enabled;
+        if (!isBound()) {
+            bind();
+            return;
+        }
+        mergeCells(mTouchedCells[sourceIndex]);
+    }
+
+    /**
+     * The items of a source changed, the cells it had items on and the ones it has now are
+     * merged again
+     */
+    public void notifySourceChanged(int sourceIndex) {
+        if (!isBound()) {
+            bind();
+            return;
+        }
+
+        long touchedBefore = mTouchedCells[sourceIndex];
+        mTouchedCells[sourceIndex] = findTouchedCells(sourceIndex);
+        if (mEnabled[sourceIndex]) {
+            mergeCells(touchedBefore | mTouchedCells[sourceIndex]);
+        }
+    }
+
+    /**
+     * @return The cells the source has items on, one bit per cell
+     */
+    public long getTouchedCells(int sourceIndex) {
+        return mTouchedCells[sourceIndex];
+    }
+
+    /**
+     * Merges the sources into every cell of the view, call it after the view moves to other days
+     */
+    public void bind() {
+        int firstDayKey = mCalendarView.getDayKeyForCell(0);
+        if (firstDayKey == DayKey.NONE) return;
+
+        mBoundFirstDayKey = firstDayKey;
+        mBoundCellCount = Math.min(mCalendarView.getCellCount(), CalendarView.MAX_SELECTABLE_CELLS);
+        if (mBoundCellCount == 0) return;
+
+        for (int source = 0; source < mSources.length; source++) {
+            mTouchedCells[source] = findTouchedCells(source);
+        }
+        mergeCells(0, mBoundCellCount - 1);
+    }
+
+    private boolean isBound() {
+        return mBoundFirstDayKey != DayKey.NONE && mBoundFirstDayKey == mCalendarView.getDayKeyForCell(0) &&
+                mBoundCellCount == Math.min(mCalendarView.getCellCount(), CalendarView.MAX_SELECTABLE_CELLS);
+    }
+
+    private long findTouchedCells(int sourceIndex) {
+        Source source = mSources[sourceIndex];
+        int end = lowerBound(source, mBoundFirstDayKey + mBoundCellCount);
+        long touchedCells = 0;
+        // One search per day with items, not one step per item
+        for (int position = lowerBound(source, mBoundFirstDayKey); position < end;
+             position = lowerBound(source, source.getDayKey(position) + 1)) {
+            touchedCells |= 1L << (source.getDayKey(position) - mBoundFirstDayKey);
+        }
+        return touchedCells;
+    }
+
+    private void mergeCells(long cells) {
+        // One merge for every run of contiguous cells
+        while (cells != 0) {
+            int firstCell = Long.numberOfTrailingZeros(cells);
+            int lastCell = firstCell + Long.numberOfTrailingZeros(~(cells >>> firstCell)) - 1;
+            mergeCells(firstCell, lastCell);
+            cells &= ~CalendarView.getCellRange(firstCell, lastCell);
+        }
+    }
+
+    private void mergeCells(int firstCell, int lastCell) {
+        int firstDayKey = mBoundFirstDayKey + firstCell;
+        int lastDayKey = mBoundFirstDayKey + lastCell;
+
+        // Every enabled source starts on its first item of the days
+        mHeapSize = 0;
+        for (int source = 0; source < mSources.length; source++) {
+            if (!mEnabled[source]) continue;
+
+            mCursors[source] = lowerBound(mSources[source], firstDayKey);
+            mEnds[source] = lowerBound(mSources[source], lastDayKey + 1);
+            if (mCursors[source] < mEnds[source]) {
+                readHead(source);
+                mHeap[mHeapSize] = source;
+                siftUp(mHeapSize++);
+            }
+        }
+
+        int cell = firstCell;
+        mMerged.clear();
+        while (mHeapSize > 0) {
+            int source = mHeap[0];
+            int itemCell = mHeadDayKeys[source] - mBoundFirstDayKey;
+            // Days before this item are complete
+            while (cell < itemCell) {
+                setCellContent(cell++);
+            }
+
+            View view = mSources[source].getView(mCursors[source], mCalendarView);
+            if (view != null) {
+                mMerged.add(view);
+            }
+
+            if (++mCursors[source] < mEnds[source]) {
+                readHead(source);
+            } else {
+                mHeap[0] = mHeap[--mHeapSize];
+            }
+            siftDown(0);
+        }
+        while (cell <= lastCell) {
+            setCellContent(cell++);
+        }
+    }
+
+    private void setCellContent(int cell) {
+        // The view copies the list
+        mCalendarView.setCellContent(cell, mMerged);
+        mMerged.clear();
+    }
+
+    private void readHead(int source) {
+        mHeadDayKeys[source] = mSources[source].getDayKey(mCursors[source]);
+        mHeadStarts[source] = mSources[source].getStartMinute(mCursors[source]);
+    }
+
+    private boolean goesBefore(int source, int otherSource) {
+        if (mHeadDayKeys[source] != mHeadDayKeys[otherSource]) {
+            return mHeadDayKeys[source] < mHeadDayKeys[otherSource];
+        }
+        if (mHeadStarts[source] != mHeadStarts[otherSource]) {
+            return mHeadStarts[source] < mHeadStarts[otherSource];
+        }
+        return source < otherSource;
+    }
+
+    private void siftUp(int index) {
+        int source = mHeap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!goesBefore(source, mHeap[parent])) break;
+
+            mHeap[index] = mHeap[parent];
+            index = parent;
+        }
+        mHeap[index] = source;
+    }
+
+    private void siftDown(int index) {
+        if (index >= mHeapSize) return;
+
+        int source = mHeap[index];
+        while (true) {
+            int child = index * 2 + 1;
+            if (child >= mHeapSize) break;
+            if (child + 1 < mHeapSize && goesBefore(mHeap[child + 1], mHeap[child])) {
+                child++;
+            }
+            if (!goesBefore(mHeap[child], source)) break;
+
+            mHeap[index] = mHeap[child];
+            index = child;
+        }
+        mHeap[index] = source;
+    }
+
+    /**
+     * @return The first position of the source on or after the day
+     */
+    private static int lowerBound(Source source, int dayKey) {
+        int low = 0;
+        int high = source.getItemCount();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (source.getDayKey(middle) < dayKey) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,342 @@
+package com.sickmartian.calendarview;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+
+/**
+ * Immutable styling of the calendar views, with the paints and metrics derived from it.
+ * Build it once, from attributes or code, and share it between any number of views so they
+ * don't need to parse attributes or allocate paints when created.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class CalendarStyle {
+    final float mTextSize;
+    final Paint mCurrentDayTextColor;
+    final Paint mActiveTextColor;
+    final Paint mInactiveTextColor;
+    final Paint mSeparationPaint;
+    final Paint mActiveBackgroundColor;
+    final Paint mInactiveBackgroundColor;
+    final Paint mSelectedBackgroundColor;
+    final Paint mOverflowPaint;
+    final Drawable mCurrentDayDrawable;
+    final float mDecorationSize;
+    final float mOverflowHeight;
+    final boolean mShowOverflow;
+    final boolean mIgnoreMaterialGrid;
+    final boolean mSeparateDaysVertically;
+
+    // Derived
+    final float dp1;
+    final float dp4;
+    final float mBetweenSiblingsPadding;
+    final int mSingleLetterWidth;
+    final int mSingleLetterHeight;
+    final float mEndOfHeaderWithoutWeekday;
+    final float mEndOfHeaderWithWeekday;
+
+    private CalendarStyle(Builder builder) {
+        dp1 = builder.dp1;
+        dp4 = builder.dp4;
+        mTextSize = builder.mTextSize;
+
+        // Text
+        mCurrentDayTextColor = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mCurrentDayTextColor.setColor(builder.mCurrentDayTextColor);
+        mCurrentDayTextColor.setTextSize(mTextSize);
+
+        mActiveTextColor = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mActiveTextColor.setColor(builder.mActiveTextColor);
+        mActiveTextColor.setTextSize(mTextSize);
+
+        mInactiveTextColor = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mInactiveTextColor.setColor(builder.mInactiveTextColor);
+        mInactiveTextColor.setTextSize(mTextSize);
+
+        // Cell background
+        mSeparationPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mSeparationPaint.setStyle(Paint.Style.STROKE);
+        mSeparationPaint.setColor(builder.mSeparatorColor);
+
+        mActiveBackgroundColor = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mActiveBackgroundColor.setStyle(Paint.Style.FILL);
+        mActiveBackgroundColor.setColor(builder.mActiveBackgroundColor);
+
+        mInactiveBackgroundColor = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mInactiveBackgroundColor.setStyle(Paint.Style.FILL);
+        mInactiveBackgroundColor.setColor(builder.mInactiveBackgroundColor);
+
+        mSelectedBackgroundColor = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mSelectedBackgroundColor.setStyle(Paint.Style.FILL);
+        mSelectedBackgroundColor.setColor(builder.mSelectedBackgroundColor);
+
+        // Decoration
+        mCurrentDayDrawable = builder.mCurrentDayDrawable;
+        mDecorationSize = builder.mDecorationSize;
+        mBetweenSiblingsPadding = dp4;
+
+        // Overflow
+        mOverflowPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mOverflowPaint.setStyle(Paint.Style.FILL);
+        mOverflowPaint.setColor(builder.mOverflowColor);
+        mOverflowHeight = builder.mOverflowHeight;
+
+        // Other
+        mShowOverflow = builder.mShowOverflow;
+        mIgnoreMaterialGrid = builder.mIgnoreMaterialGrid;
+        mSeparateDaysVertically = builder.mSeparateDaysVertically;
+
+        // Calculate a bunch of no-data dependent dimensions
+        Rect textBound = new Rect();
+        mActiveTextColor.getTextBounds("W", 0, 1, textBound);
+        mSingleLetterWidth = textBound.width();
+        mSingleLetterHeight = textBound.height();
+        if (mDecorationSize > 0) {
+            mEndOfHeaderWithoutWeekday = mBetweenSiblingsPadding * 2 + mDecorationSize;
+            mEndOfHeaderWithWeekday = mBetweenSiblingsPadding * 3 + mDecorationSize + mSingleLetterHeight;
+        } else {
+            mEndOfHeaderWithoutWeekday = mBetweenSiblingsPadding * 2 + mSingleLetterHeight;
+            mEndOfHeaderWithWeekday = mBetweenSiblingsPadding * 3 + mSingleLetterHeight * 2;
+        }
+    }
+
+    public static CalendarStyle fromAttributes(Context context, AttributeSet attrs) {
+        Builder builder = new Builder(context);
+
+        TypedArray a = context.getTheme().obtainStyledAttributes(
+                attrs,
+                R.styleable.MonthView,
+                0, 0);
+
+        try {
+            builder.setTextSize(a.getDimension(R.styleable.MonthView_textSize, builder.mTextSize))
+                .setCurrentDayTextColor(a.getColor(R.styleable.MonthView_currentDayTextColor, builder.mCurrentDayTextColor))
+                .setActiveTextColor(a.getColor(R.styleable.MonthView_activeTextColor, builder.mActiveTextColor))
+                .setInactiveTextColor(a.getColor(R.styleable.MonthView_inactiveTextColor, builder.mInactiveTextColor))
+                .setSeparatorColor(a.getColor(R.styleable.MonthView_separatorColor, builder.mSeparatorColor))
+                .setActiveBackgroundColor(a.getColor(R.styleable.MonthView_activeBackgroundColor, builder.mActiveBackgroundColor))
+                .setInactiveBackgroundColor(a.getColor(R.styleable.MonthView_inactiveBackgroundColor, builder.mInactiveBackgroundColor))
+                .setSelectedBackgroundColor(a.getColor(R.styleable.MonthView_selectedBackgroundColor, builder.mSelectedBackgroundColor))
+                .setCurrentDayDecorationDrawable(a.getDrawable(R.styleable.MonthView_currentDayDecorationDrawable))
+                .setCurrentDayDecorationSize(a.getDimension(R.styleable.MonthView_currentDayDecorationSize, builder.mDecorationSize))
+                .setIgnoreMaterialGrid(a.getBoolean(R.styleable.MonthView_ignoreMaterialGrid, builder.mIgnoreMaterialGrid))
+                .setSeparateDaysVertically(a.getBoolean(R.styleable.MonthView_separateDaysVertically, builder.mSeparateDaysVertically))
+                .setShowOverflow(a.getBoolean(R.styleable.MonthView_showOverflow, builder.mShowOverflow))
+                .setOverflowColor(a.getColor(R.styleable.MonthView_overflowColor, builder.mOverflowColor))
+                .setOverflowHeight(a.getDimension(R.styleable.MonthView_overflowHeight, builder.mOverflowHeight));
+        } finally {
+            a.recycle();
+        }
+
+        return builder.build();
+    }
+
+    public Builder newBuilder() {
+        return new Builder(this);
+    }
+
+    /**
+     * @return If views using the other style can keep their measurements and layout
+     */
+    public boolean hasSameMetrics(CalendarStyle other) {
+        return other != null &&
+                mTextSize == other.mTextSize &&
+                mDecorationSize == other.mDecorationSize &&
+                mOverflowHeight == other.mOverflowHeight &&
+                mBetweenSiblingsPadding == other.mBetweenSiblingsPadding;
+    }
+
+    public float getTextSize() {
+        return mTextSize;
+    }
+
+    public int getCurrentDayTextColor() {
+        return mCurrentDayTextColor.getColor();
+    }
+
+    public int getActiveTextColor() {
+        return mActiveTextColor.getColor();
+    }
+
+    public int getInactiveTextColor() {
+        return mInactiveTextColor.getColor();
+    }
+
+    public int getSeparatorColor() {
+        return mSeparationPaint.getColor();
+    }
+
+    public int getActiveBackgroundColor() {
+        return mActiveBackgroundColor.getColor();
+    }
+
+    public int getInactiveBackgroundColor() {
+        return mInactiveBackgroundColor.getColor();
+    }
+
+    public int getSelectedBackgroundColor() {
+        return mSelectedBackgroundColor.getColor();
+    }
+
+    public Drawable getCurrentDayDecorationDrawable() {
+        return mCurrentDayDrawable;
+    }
+
+    public float getCurrentDayDecorationSize() {
+        return mDecorationSize;
+    }
+
+    public int getOverflowColor() {
+        return mOverflowPaint.getColor();
+    }
+
+    public float getOverflowHeight() {
+        return mOverflowHeight;
+    }
+
+    public boolean isOverflowShown() {
+        return mShowOverflow;
+    }
+
+    public boolean isIgnoringMaterialGrid() {
+        return mIgnoreMaterialGrid;
+    }
+
+    public boolean hasDayVerticalSeparation() {
+        return mSeparateDaysVertically;
+    }
+
+    public static class Builder {
+        final float dp1;
+        final float dp4;
+        float mTextSize;
+        int mCurrentDayTextColor = Color.WHITE;
+        int mActiveTextColor = Color.BLACK;
+        int mInactiveTextColor = Color.DKGRAY;
+        int mSeparatorColor = Color.LTGRAY;
+        int mActiveBackgroundColor = Color.WHITE;
+        int mInactiveBackgroundColor = Color.GRAY;
+        int mSelectedBackgroundColor = Color.YELLOW;
+        Drawable mCurrentDayDrawable;
+        float mDecorationSize;
+        int mOverflowColor = Color.GREEN;
+        float mOverflowHeight;
+        boolean mShowOverflow = true;
+        boolean mIgnoreMaterialGrid = true;
+        boolean mSeparateDaysVertically;
+
+        public Builder(Context context) {
+            Resources resources = context.getResources();
+            dp4 = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 4, resources.getDisplayMetrics());
+            dp1 = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 1, resources.getDisplayMetrics());
+            mTextSize = resources.getDimension(R.dimen.calendar_view_default_text_size);
+            mOverflowHeight = resources.getDimension(R.dimen.calendar_view_default_overflow_height);
+        }
+
+        Builder(CalendarStyle style) {
+            dp1 = style.dp1;
+            dp4 = style.dp4;
+            mTextSize = style.mTextSize;
+            mCurrentDayTextColor = style.getCurrentDayTextColor();
+            mActiveTextColor = style.getActiveTextColor();
+            mInactiveTextColor = style.getInactiveTextColor();
+            mSeparatorColor = style.getSeparatorColor();
+            mActiveBackgroundColor = style.getActiveBackgroundColor();
+            mInactiveBackgroundColor = style.getInactiveBackgroundColor();
+            mSelectedBackgroundColor = style.getSelectedBackgroundColor();
+            mCurrentDayDrawable = style.mCurrentDayDrawable;
+            mDecorationSize = style.mDecorationSize;
+            mOverflowColor = style.getOverflowColor();
+            mOverflowHeight = style.mOverflowHeight;
+            mShowOverflow = style.mShowOverflow;
+            mIgnoreMaterialGrid = style.mIgnoreMaterialGrid;
+            mSeparateDaysVertically = style.mSeparateDaysVertically;
+        }
+
+        public Builder setTextSize(float textSize) {
+            mTextSize = textSize;
+            return this;
+        }
+
+        public Builder setCurrentDayTextColor(int color) {
+            mCurrentDayTextColor = color;
+            return this;
+        }
+
+        public Builder setActiveTextColor(int color) {
+            mActiveTextColor = color;
+            return this;
+        }
+
+        public Builder setInactiveTextColor(int color) {
+            mInactiveTextColor = color;
+            return this;
+        }
+
+        public Builder setSeparatorColor(int color) {
+            mSeparatorColor = color;
+            return this;
+        }
+
+        public Builder setActiveBackgroundColor(int color) {
+            mActiveBackgroundColor = color;
+            return this;
+        }
+
+        public Builder setInactiveBackgroundColor(int color) {
+            mInactiveBackgroundColor = color;
+            return this;
+        }
+
+        public Builder setSelectedBackgroundColor(int color) {
+            mSelectedBackgroundColor = color;
+            return this;
+        }
+
+        public Builder setCurrentDayDecorationDrawable(Drawable drawable) {
+            mCurrentDayDrawable = drawable;
+            return this;
+        }
+
+        public Builder setCurrentDayDecorationSize(float size) {
+            mDecorationSize = size;
+            return this;
+        }
+
+        public Builder setOverflowColor(int color) {
+            mOverflowColor = color;
+            return this;
+        }
+
+        public Builder setOverflowHeight(float height) {
+            mOverflowHeight = height;
+            return this;
+        }
+
+        public Builder setShowOverflow(boolean showOverflow) {
+            mShowOverflow = showOverflow;
+            return this;
+        }
+
+        public Builder setIgnoreMaterialGrid(boolean ignoreMaterialGrid) {
+            mIgnoreMaterialGrid = ignoreMaterialGrid;
+            return this;
+        }
+
+        public Builder setSeparateDaysVertically(boolean separateDaysVertically) {
+            mSeparateDaysVertically = separateDaysVertically;
+            return this;
+        }
+
+        public CalendarStyle build() {
+            return new CalendarStyle(this);
+        }
+    }
+}
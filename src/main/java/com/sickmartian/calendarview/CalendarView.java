@@ -1,27 +1,32 @@
 package com.sickmartian.calendarview;
 
 import android.content.Context;
-import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
 import android.support.annotation.IntDef;
 import android.support.v4.view.GestureDetectorCompat;
 import android.util.AttributeSet;
 import android.util.Log;
-import android.util.TypedValue;
 import android.view.GestureDetector;
+import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
 
 import java.text.DateFormatSymbols;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Locale;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Created by sickmartian on 2/20/2016.
@@ -44,6 +49,22 @@ public abstract class CalendarView extends ViewGroup implements GestureDetector.
     public static final int MONDAY_SHIFT = 6;
     protected int mFirstDayOfTheWeekShift = SUNDAY_SHIFT;
 
+    @IntDef({SELECTION_SINGLE, SELECTION_MULTIPLE, SELECTION_RANGE})
+    @interface PossibleSelectionMode {
+    }
+
+    public static final int SELECTION_SINGLE = 0;
+    public static final int SELECTION_MULTIPLE = 1;
+    public static final int SELECTION_RANGE = 2;
+    protected int mSelectionMode = SELECTION_SINGLE;
+
+    // Cells selected on multiple and range modes, one bit per cell
+    public static final int MAX_SELECTABLE_CELLS = 64;
+    protected long mSelectedCells;
+    protected int mRangeAnchorCell = INITIAL;
+    protected int mRangeLastCell = INITIAL;
+    private final Rect mReusableInvalidationBound = new Rect();
+
     public interface DayString {
         String getDayString();
     }
@@ -61,6 +82,14 @@ public abstract class CalendarView extends ViewGroup implements GestureDetector.
             setDay(day);
         }
 
+        public static DayMetadata fromDayKey(int dayKey) {
+            return new DayMetadata(DayKey.getYear(dayKey), DayKey.getMonth(dayKey), DayKey.getDay(dayKey));
+        }
+
+        public int toDayKey() {
+            return DayKey.of(year, month, day);
+        }
+
         public int getYear() {
             return year;
         }
@@ -83,11 +112,15 @@ public abstract class CalendarView extends ViewGroup implements GestureDetector.
 
         public void setDay(int day) {
             this.day = day;
-            this.dayString = Integer.toString(day);
+            this.dayString = null;
         }
 
         @Override
         public String getDayString() {
+            // Only needed when drawn, no need to create it for every instance
+            if (dayString == null) {
+                dayString = Integer.toString(day);
+            }
             return dayString;
         }
 
@@ -110,140 +143,229 @@ public abstract class CalendarView extends ViewGroup implements GestureDetector.
         }
     }
 
-    protected final Paint mActiveTextColor;
-    protected final Paint mSeparationPaint;
-    protected final Paint mInactiveTextColor;
-    protected final Paint mInactiveBackgroundColor;
-    protected final Paint mActiveBackgroundColor;
-    protected final Paint mSelectedBackgroundColor;
-    protected final Drawable mCurrentDayDrawable;
-    protected final float mDecorationSize;
-    protected final float mBetweenSiblingsPadding;
+    protected Paint mActiveTextColor;
+    protected Paint mSeparationPaint;
+    protected Paint mInactiveTextColor;
+    protected Paint mInactiveBackgroundColor;
+    protected Paint mActiveBackgroundColor;
+    protected Paint mSelectedBackgroundColor;
+    protected Drawable mCurrentDayDrawable;
+    protected float mDecorationSize;
+    protected float mBetweenSiblingsPadding;
     protected float mMaterialLeftRightPadding;
     protected boolean mShowOverflow;
     protected boolean mIgnoreMaterialGrid;
     protected boolean mSeparateDaysVertically;
-    protected final Paint mOverflowPaint;
-    protected final float mOverflowHeight;
-    protected final float mTextSize;
-    protected final Paint mCurrentDayTextColor;
-    protected final float dp1;
-    protected final float dp4;
+    protected Paint mOverflowPaint;
+    protected float mOverflowHeight;
+    protected float mTextSize;
+    protected Paint mCurrentDayTextColor;
+    protected float dp1;
+    protected float dp4;
     protected final Rect mReusableTextBound = new Rect();
-    protected final float mEndOfHeaderWithoutWeekday;
-    protected final float mEndOfHeaderWithWeekday;
-    protected final int mSingleLetterWidth;
-    protected final int mSingleLetterHeight;
+    protected float mEndOfHeaderWithoutWeekday;
+    protected float mEndOfHeaderWithWeekday;
+    protected int mSingleLetterWidth;
+    protected int mSingleLetterHeight;
+
+    protected CalendarStyle mStyle;
 
     public CalendarView(Context context, AttributeSet attrs) {
+        this(context, attrs, CalendarStyle.fromAttributes(context, attrs));
+    }
+
+    /**
+     * Creates the view with a style that can be shared with other views, so no attributes are
+     * parsed and no paints are allocated
+     */
+    public CalendarView(Context context, CalendarStyle style) {
+        this(context, null, style);
+    }
+
+    private CalendarView(Context context, AttributeSet attrs, CalendarStyle style) {
         super(context, attrs);
 
-        TypedArray a = context.getTheme().obtainStyledAttributes(
-                attrs,
-                R.styleable.MonthView,
-                0, 0);
+        applyStyle(style);
 
-        dp4 = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 4, getResources().getDisplayMetrics());
-        dp1 = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 1, getResources().getDisplayMetrics());
+        // Per view state, starts as the style says
+        mIgnoreMaterialGrid = style.mIgnoreMaterialGrid;
+        recalculatePadding();
+        mSeparateDaysVertically = style.mSeparateDaysVertically;
+        mShowOverflow = style.mShowOverflow;
 
-        try {
-            // Text
-            mTextSize = a.getDimension(R.styleable.MonthView_textSize, getResources().getDimension(R.dimen.calendar_view_default_text_size));
+        // Arrays in initial state so we can draw ourselves on the editor
+        removeAllContent();
 
-            mCurrentDayTextColor = new Paint(Paint.ANTI_ALIAS_FLAG);
-            mCurrentDayTextColor.setColor(a.getColor(R.styleable.MonthView_currentDayTextColor, Color.WHITE));
-            mCurrentDayTextColor.setTextSize(mTextSize);
+        // Interaction
+        setupInteraction(context);
 
-            mActiveTextColor = new Paint(Paint.ANTI_ALIAS_FLAG);
-            mActiveTextColor.setColor(a.getColor(R.styleable.MonthView_activeTextColor, Color.BLACK));
-            mActiveTextColor.setTextSize(mTextSize);
+        // We will draw ourselves, even if we are a ViewGroup
+        setWillNotDraw(false);
 
-            mInactiveTextColor = new Paint(Paint.ANTI_ALIAS_FLAG);
-            mInactiveTextColor.setColor(a.getColor(R.styleable.MonthView_inactiveTextColor, Color.DKGRAY));
-            mInactiveTextColor.setTextSize(mTextSize);
+        mWeekDays = getCachedWeekdaysForShift(mFirstDayOfTheWeekShift);
+    }
 
-            // Cell background
-            mSeparationPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-            mSeparationPaint.setStyle(Paint.Style.STROKE);
-            mSeparationPaint.setColor(a.getColor(R.styleable.MonthView_separatorColor, Color.LTGRAY));
+    private void applyStyle(CalendarStyle style) {
+        mStyle = style;
+        dp4 = style.dp4;
+        dp1 = style.dp1;
 
-            mActiveBackgroundColor = new Paint(Paint.ANTI_ALIAS_FLAG);
-            mActiveBackgroundColor.setStyle(Paint.Style.FILL);
-            mActiveBackgroundColor.setColor(a.getColor(R.styleable.MonthView_activeBackgroundColor, Color.WHITE));
+        // Text
+        mTextSize = style.mTextSize;
+        mCurrentDayTextColor = style.mCurrentDayTextColor;
+        mActiveTextColor = style.mActiveTextColor;
+        mInactiveTextColor = style.mInactiveTextColor;
 
-            mInactiveBackgroundColor = new Paint(Paint.ANTI_ALIAS_FLAG);
-            mInactiveBackgroundColor.setStyle(Paint.Style.FILL);
-            mInactiveBackgroundColor.setColor(a.getColor(R.styleable.MonthView_inactiveBackgroundColor, Color.GRAY));
+        // Cell background
+        mSeparationPaint = style.mSeparationPaint;
+        mActiveBackgroundColor = style.mActiveBackgroundColor;
+        mInactiveBackgroundColor = style.mInactiveBackgroundColor;
+        mSelectedBackgroundColor = style.mSelectedBackgroundColor;
 
-            mSelectedBackgroundColor = new Paint(Paint.ANTI_ALIAS_FLAG);
-            mSelectedBackgroundColor.setStyle(Paint.Style.FILL);
-            mSelectedBackgroundColor.setColor(a.getColor(R.styleable.MonthView_selectedBackgroundColor, Color.YELLOW));
+        // Decoration
+        mCurrentDayDrawable = style.mCurrentDayDrawable;
+        mDecorationSize = style.mDecorationSize;
+        mBetweenSiblingsPadding = style.mBetweenSiblingsPadding;
 
-            // Decoration
-            mCurrentDayDrawable = a.getDrawable(R.styleable.MonthView_currentDayDecorationDrawable);
+        // Overflow
+        mOverflowPaint = style.mOverflowPaint;
+        mOverflowHeight = style.mOverflowHeight;
+
+        // No-data dependent dimensions
+        mSingleLetterWidth = style.mSingleLetterWidth;
+        mSingleLetterHeight = style.mSingleLetterHeight;
+        mEndOfHeaderWithoutWeekday = style.mEndOfHeaderWithoutWeekday;
+        mEndOfHeaderWithWeekday = style.mEndOfHeaderWithWeekday;
+    }
 
-            mDecorationSize = a.getDimension(R.styleable.MonthView_currentDayDecorationSize, 0);
-            mBetweenSiblingsPadding = dp4;
+    public CalendarStyle getStyle() {
+        return mStyle;
+    }
 
-            mIgnoreMaterialGrid = a.getBoolean(R.styleable.MonthView_ignoreMaterialGrid, true);
-            recalculatePadding();
+    /**
+     * Restyles the view in place, including the per view settings from the style (overflow,
+     * material grid and vertical separation).
+     * Only relayouts if the metrics changed, otherwise it just redraws.
+     */
+    public void setStyle(CalendarStyle style) {
+        if (style == null || style == mStyle) return;
+
+        boolean relayout = !style.hasSameMetrics(mStyle) ||
+                style.mIgnoreMaterialGrid != mIgnoreMaterialGrid;
+        applyStyle(style);
+        mShowOverflow = style.mShowOverflow;
+        mSeparateDaysVertically = style.mSeparateDaysVertically;
+        mIgnoreMaterialGrid = style.mIgnoreMaterialGrid;
+        recalculatePadding();
+
+        onStyleChanged(relayout);
+    }
 
-            mSeparateDaysVertically = a.getBoolean(R.styleable.MonthView_separateDaysVertically, false);
+    private void updateStyle(CalendarStyle style) {
+        // Styles might be shared between views, so we derive a new one instead of touching
+        // its paints
+        boolean relayout = !style.hasSameMetrics(mStyle);
+        applyStyle(style);
+        onStyleChanged(relayout);
+    }
 
-            // Overflow
-            mShowOverflow = a.getBoolean(R.styleable.MonthView_showOverflow, true);
-            mOverflowPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-            mOverflowPaint.setStyle(Paint.Style.FILL);
-            mOverflowPaint.setColor(a.getColor(R.styleable.MonthView_overflowColor, Color.GREEN));
-            mOverflowHeight = a.getDimension(R.styleable.MonthView_overflowHeight,
-                    getResources().getDimension(R.dimen.calendar_view_default_overflow_height));
-        } finally {
-            a.recycle();
+    protected void onStyleChanged(boolean metricsChanged) {
+        if (metricsChanged) {
+            requestLayout();
         }
+        invalidate();
+    }
 
-        // Arrays in initial state so we can draw ourselves on the editor
-        removeAllContent();
+    public void setTextSize(float textSize) {
+        if (textSize == mTextSize) return;
+        updateStyle(mStyle.newBuilder().setTextSize(textSize).build());
+    }
 
-        // Calculate a bunch of no-data dependent dimensions
-        mActiveTextColor.getTextBounds("W", 0, 1, mReusableTextBound);
-        mSingleLetterWidth = mReusableTextBound.width();
-        mSingleLetterHeight = mReusableTextBound.height();
-        if (mDecorationSize > 0) {
-            mEndOfHeaderWithoutWeekday = mBetweenSiblingsPadding * 2 + mDecorationSize;
-            mEndOfHeaderWithWeekday = mBetweenSiblingsPadding * 3 + mDecorationSize + mSingleLetterHeight;
-        } else {
-            mEndOfHeaderWithoutWeekday = mBetweenSiblingsPadding * 2 + mSingleLetterHeight;
-            mEndOfHeaderWithWeekday = mBetweenSiblingsPadding * 3 + mSingleLetterHeight * 2;
-        }
+    public void setCurrentDayTextColor(int color) {
+        if (color == mCurrentDayTextColor.getColor()) return;
+        updateStyle(mStyle.newBuilder().setCurrentDayTextColor(color).build());
+    }
 
-        // Interaction
-        setupInteraction(context);
+    public void setActiveTextColor(int color) {
+        if (color == mActiveTextColor.getColor()) return;
+        updateStyle(mStyle.newBuilder().setActiveTextColor(color).build());
+    }
 
-        // We will draw ourselves, even if we are a ViewGroup
-        setWillNotDraw(false);
+    public void setInactiveTextColor(int color) {
+        if (color == mInactiveTextColor.getColor()) return;
+        updateStyle(mStyle.newBuilder().setInactiveTextColor(color).build());
+    }
+
+    public void setSeparatorColor(int color) {
+        if (color == mSeparationPaint.getColor()) return;
+        updateStyle(mStyle.newBuilder().setSeparatorColor(color).build());
+    }
+
+    public void setActiveBackgroundColor(int color) {
+        if (color == mActiveBackgroundColor.getColor()) return;
+        updateStyle(mStyle.newBuilder().setActiveBackgroundColor(color).build());
+    }
+
+    public void setInactiveBackgroundColor(int color) {
+        if (color == mInactiveBackgroundColor.getColor()) return;
+        updateStyle(mStyle.newBuilder().setInactiveBackgroundColor(color).build());
+    }
+
+    public void setSelectedBackgroundColor(int color) {
+        if (color == mSelectedBackgroundColor.getColor()) return;
+        updateStyle(mStyle.newBuilder().setSelectedBackgroundColor(color).build());
+    }
+
+    public void setCurrentDayDecorationDrawable(Drawable drawable) {
+        if (drawable == mCurrentDayDrawable) return;
+        updateStyle(mStyle.newBuilder().setCurrentDayDecorationDrawable(drawable).build());
+    }
 
-        mWeekDays = getWeekdaysForShift(mFirstDayOfTheWeekShift);
+    public void setCurrentDayDecorationSize(float size) {
+        if (size == mDecorationSize) return;
+        updateStyle(mStyle.newBuilder().setCurrentDayDecorationSize(size).build());
+    }
+
+    public void setOverflowColor(int color) {
+        if (color == mOverflowPaint.getColor()) return;
+        updateStyle(mStyle.newBuilder().setOverflowColor(color).build());
+    }
+
+    public void setOverflowHeight(float height) {
+        if (height == mOverflowHeight) return;
+        updateStyle(mStyle.newBuilder().setOverflowHeight(height).build());
     }
 
     protected void recalculateCells(int w, int h, RectF[] dayCells, int rowCount) {
-        int firstRowExtraHeight = (int) (mSingleLetterHeight + mBetweenSiblingsPadding);
+        recalculateCells(w, h, dayCells, rowCount, DAYS_IN_WEEK);
+    }
+
+    protected void recalculateCells(int w, int h, RectF[] dayCells, int rowCount, int columnCount) {
+        int firstRowExtraHeight = getFirstRowExtraHeight();
 
-        int COLS = 7;
+        int COLS = columnCount;
         float widthStep = ( w - mMaterialLeftRightPadding * 2 ) / (float) COLS;
         float heightStep = ( h - firstRowExtraHeight ) / (float) rowCount;
 
         for (int col = 0; col < COLS; col++) {
             float lastBottom = INITIAL;
             for (int row = 0; row < rowCount; row++) {
+                // Reuse the cells we already have, this runs on every measure
+                RectF cell = dayCells[row * COLS  + col];
+                if (cell == null) {
+                    cell = new RectF();
+                    dayCells[row * COLS  + col] = cell;
+                }
+
                 if (row == 0) {
                     lastBottom = (heightStep + firstRowExtraHeight);
-                    dayCells[row * COLS  + col] = new RectF(widthStep * col + mMaterialLeftRightPadding,
+                    cell.set(widthStep * col + mMaterialLeftRightPadding,
                             heightStep * row,
                             widthStep * (col + 1) + mMaterialLeftRightPadding,
                             lastBottom);
                 } else {
                     float newBottom = (lastBottom + heightStep);
-                    dayCells[row * COLS  + col] = new RectF(widthStep * col + mMaterialLeftRightPadding,
+                    cell.set(widthStep * col + mMaterialLeftRightPadding,
                             lastBottom,
                             widthStep * (col + 1) + mMaterialLeftRightPadding,
                             newBottom);
@@ -253,17 +375,24 @@ public abstract class CalendarView extends ViewGroup implements GestureDetector.
         }
     }
 
+    /**
+     * @return The height of the weekday header the first row has on top of the other rows
+     */
+    protected int getFirstRowExtraHeight() {
+        return (int) (mSingleLetterHeight + mBetweenSiblingsPadding);
+    }
+
     protected enum BLOCK {
         LEFT,
         RIGHT,
         COMPLETE
     }
 
-    protected void drawBlock(Canvas canvas, Paint color, BLOCK block,
+    protected void drawBlock(CalendarRenderer renderer, Paint color, BLOCK block,
                              float left, float top, float right, float bottom) {
         // Just paint with the correct color if we are ignoring the material guidelines
         if (mIgnoreMaterialGrid) {
-            canvas.drawRect(left, top, right, bottom, color);
+            renderer.drawRect(left, top, right, bottom, color);
             return;
         }
 
@@ -274,38 +403,195 @@ public abstract class CalendarView extends ViewGroup implements GestureDetector.
                 mMaterialLeftRightPadding : 0;
 
         // Just paint unselected
-        canvas.drawRect(left + additionalLeft, top, right + additionalRight, bottom, color);
+        renderer.drawRect(left + additionalLeft, top, right + additionalRight, bottom, color);
     }
 
-    protected void drawOverflow(Canvas canvas, ArrayList<Integer> mCellsWithOverflow, RectF[] dayCells) {
+    protected void drawOverflow(CalendarRenderer renderer, ArrayList<Integer> mCellsWithOverflow, RectF[] dayCells) {
         // Overflow
         if (mShowOverflow) {
-            for (int cellWithOverflow : mCellsWithOverflow) {
-                canvas.drawRect(dayCells[cellWithOverflow].left, dayCells[cellWithOverflow].bottom - mOverflowHeight,
+            // Indexed, an iterator would be an allocation on every frame
+            for (int i = 0; i < mCellsWithOverflow.size(); i++) {
+                int cellWithOverflow = mCellsWithOverflow.get(i);
+                renderer.drawRect(dayCells[cellWithOverflow].left, dayCells[cellWithOverflow].bottom - mOverflowHeight,
                         dayCells[cellWithOverflow].right, dayCells[cellWithOverflow].bottom, mOverflowPaint);
             }
         }
     }
 
-    protected void drawVerticalSeparation(Canvas canvas, RectF[] dayCells) {
+    // Markers
+    int mMarkerFirstDayKey = DayKey.NONE;
+    int mMarkerDayCount;
+    int[] mMarkerOffsets = new int[1];
+    int[] mMarkerColors = new int[0];
+    float mMarkerRadius = -1;
+    final Paint mMarkerPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    /**
+     * Colored dots drawn below the day numbers, without any views. The colors of day i (counting
+     * from firstDayKey) go from dayOffsets[i] to dayOffsets[i + 1]. The arrays are copied.
+     */
+    public void setMarkers(int firstDayKey, int[] dayOffsets, int[] colors) {
+        if (firstDayKey == DayKey.NONE || dayOffsets == null || dayOffsets.length == 0 || colors == null) {
+            clearMarkers();
+            return;
+        }
+
+        int dayCount = dayOffsets.length - 1;
+        int colorCount = dayOffsets[dayCount] - dayOffsets[0];
+        if (mMarkerOffsets.length < dayCount + 1) {
+            mMarkerOffsets = new int[dayCount + 1];
+        }
+        if (mMarkerColors.length < colorCount) {
+            mMarkerColors = new int[colorCount];
+        }
+        for (int i = 0; i <= dayCount; i++) {
+            mMarkerOffsets[i] = dayOffsets[i] - dayOffsets[0];
+        }
+        System.arraycopy(colors, dayOffsets[0], mMarkerColors, 0, colorCount);
+        mMarkerFirstDayKey = firstDayKey;
+        mMarkerDayCount = dayCount;
+        invalidate();
+    }
+
+    /**
+     * Same as {@link #setMarkers(int, int[], int[])} for the cells of the view
+     */
+    public void setCellMarkers(int[] cellOffsets, int[] colors) {
+        setMarkers(getDayKeyForCell(0), cellOffsets, colors);
+    }
+
+    public void setDayMarkers(int dayKey, int... colors) {
+        if (dayKey == DayKey.NONE) return;
+
+        if (mMarkerDayCount == 0) {
+            if (mMarkerOffsets.length < 2) {
+                mMarkerOffsets = new int[2];
+            }
+            mMarkerFirstDayKey = dayKey;
+            mMarkerDayCount = 1;
+            mMarkerOffsets[0] = 0;
+            mMarkerOffsets[1] = 0;
+        } else if (dayKey < mMarkerFirstDayKey) {
+            // Empty days in front
+            int newDays = mMarkerFirstDayKey - dayKey;
+            int[] offsets = mMarkerOffsets.length < mMarkerDayCount + newDays + 1 ?
+                    new int[mMarkerDayCount + newDays + 1] : mMarkerOffsets;
+            System.arraycopy(mMarkerOffsets, 0, offsets, newDays, mMarkerDayCount + 1);
+            Arrays.fill(offsets, 0, newDays, 0);
+            mMarkerOffsets = offsets;
+            mMarkerFirstDayKey = dayKey;
+            mMarkerDayCount += newDays;
+        } else if (dayKey >= mMarkerFirstDayKey + mMarkerDayCount) {
+            // Empty days at the end
+            int newDays = dayKey - (mMarkerFirstDayKey + mMarkerDayCount) + 1;
+            if (mMarkerOffsets.length < mMarkerDayCount + newDays + 1) {
+                mMarkerOffsets = Arrays.copyOf(mMarkerOffsets, mMarkerDayCount + newDays + 1);
+            }
+            Arrays.fill(mMarkerOffsets, mMarkerDayCount + 1, mMarkerDayCount + newDays + 1,
+                    mMarkerOffsets[mMarkerDayCount]);
+            mMarkerDayCount += newDays;
+        }
+
+        // Make room for the new colors of the day and move the following ones
+        int day = dayKey - mMarkerFirstDayKey;
+        int start = mMarkerOffsets[day];
+        int end = mMarkerOffsets[day + 1];
+        int colorCount = mMarkerOffsets[mMarkerDayCount];
+        int newCount = colors == null ? 0 : colors.length;
+        int delta = newCount - (end - start);
+        if (mMarkerColors.length < colorCount + delta) {
+            mMarkerColors = Arrays.copyOf(mMarkerColors, Math.max(colorCount + delta, mMarkerColors.length * 2));
+        }
+        System.arraycopy(mMarkerColors, end, mMarkerColors, end + delta, colorCount - end);
+        if (newCount > 0) {
+            System.arraycopy(colors, 0, mMarkerColors, start, newCount);
+        }
+        for (int i = day + 1; i <= mMarkerDayCount; i++) {
+            mMarkerOffsets[i] += delta;
+        }
+        invalidate();
+    }
+
+    public void clearMarkers() {
+        mMarkerFirstDayKey = DayKey.NONE;
+        mMarkerDayCount = 0;
+        mMarkerOffsets[0] = 0;
+        invalidate();
+    }
+
+    public void setMarkerRadius(float markerRadius) {
+        mMarkerRadius = markerRadius;
+        invalidate();
+    }
+
+    protected void drawMarkers(CalendarRenderer renderer, RectF[] dayCells) {
+        if (mMarkerDayCount == 0) return;
+
+        // Markers go in the padding below the day number, if not told otherwise
+        float radius = mMarkerRadius >= 0 ? mMarkerRadius : mBetweenSiblingsPadding * 0.4f;
+        float spacing = radius * 3;
+        int cellCount = Math.min(getCellCount(), dayCells.length);
+        for (int cell = 0; cell < cellCount; cell++) {
+            int day = getDayKeyForCell(cell) - mMarkerFirstDayKey;
+            if (day < 0 || day >= mMarkerDayCount || dayCells[cell] == null) continue;
+
+            int start = mMarkerOffsets[day];
+            int end = mMarkerOffsets[day + 1];
+            if (start == end) continue;
+
+            float centerY = dayCells[cell].top - mBetweenSiblingsPadding / 2 +
+                    (isWeekdayShownInCell(cell) ? mEndOfHeaderWithWeekday : mEndOfHeaderWithoutWeekday);
+            float centerX = dayCells[cell].left + mBetweenSiblingsPadding + radius;
+            for (int i = start; i < end && centerX + radius <= dayCells[cell].right; i++) {
+                mMarkerPaint.setColor(mMarkerColors[i]);
+                renderer.drawCircle(centerX, centerY, radius, mMarkerPaint);
+                centerX += spacing;
+            }
+        }
+    }
+
+    // Room for the separators between rows and columns, 4 values per line
+    final float[] mSeparatorLines = new float[(MAX_SELECTABLE_CELLS / DAYS_IN_WEEK + DAYS_IN_WEEK) * 4];
+
+    protected void drawVerticalSeparation(CalendarRenderer renderer, RectF[] dayCells) {
+        int count = addVerticalSeparation(mSeparatorLines, 0, dayCells);
+        if (count > 0) {
+            renderer.drawLines(mSeparatorLines, count, mSeparationPaint);
+        }
+    }
+
+    /**
+     * Adds the lines between columns to lines, from offset, to be drawn in a single batch
+     * @return The number of values in lines after adding them
+     */
+    protected int addVerticalSeparation(float[] lines, int offset, RectF[] dayCells) {
         // Separation
         if (mSeparateDaysVertically) {
-            canvas.drawLine(dayCells[0].right, 0, dayCells[0].right, getHeight(), mSeparationPaint);
-            canvas.drawLine(dayCells[1].right, 0, dayCells[1].right, getHeight(), mSeparationPaint);
-            canvas.drawLine(dayCells[2].right, 0, dayCells[2].right, getHeight(), mSeparationPaint);
-            canvas.drawLine(dayCells[3].right, 0, dayCells[3].right, getHeight(), mSeparationPaint);
-            canvas.drawLine(dayCells[4].right, 0, dayCells[4].right, getHeight(), mSeparationPaint);
-            canvas.drawLine(dayCells[5].right, 0, dayCells[5].right, getHeight(), mSeparationPaint);
+            int columnCount = Math.min(dayCells.length, DAYS_IN_WEEK);
+            for (int i = 0; i < columnCount - 1; i++) {
+                lines[offset++] = dayCells[i].right;
+                lines[offset++] = 0;
+                lines[offset++] = dayCells[i].right;
+                lines[offset++] = getHeight();
+            }
         }
+        return offset;
     }
 
-    protected void drawDayTextsInCell(Canvas canvas, int cellNumber, RectF[] dayCells,
+    /**
+     * @return If the cell has the name of its weekday above the day number, the first row does
+     */
+    protected boolean isWeekdayShownInCell(int cellNumber) {
+        return cellNumber < DAYS_IN_WEEK;
+    }
+
+    protected void drawDayTextsInCell(CalendarRenderer renderer, int cellNumber, RectF[] dayCells,
                                       Paint mCurrentDayTextColor,
                                       Paint mCurrentWeekDayTextColor,
                                       DayString[] dayStrings) {
         float topOffset = 0;
         // Weekday
-        if (cellNumber < DAYS_IN_WEEK) {
+        if (isWeekdayShownInCell(cellNumber)) {
             mCurrentWeekDayTextColor.getTextBounds("S", 0, 1, mReusableTextBound);
 
             int decorationLeftOffset = 0;
@@ -313,7 +599,7 @@ public abstract class CalendarView extends ViewGroup implements GestureDetector.
                 decorationLeftOffset = (int) ((mDecorationSize - mReusableTextBound.width()) / 2);
             }
 
-            canvas.drawText(mWeekDays[cellNumber],
+            renderer.drawText(mWeekDays[cellNumber],
                     dayCells[cellNumber].left + mBetweenSiblingsPadding + decorationLeftOffset,
                     dayCells[cellNumber].top + mBetweenSiblingsPadding + mReusableTextBound.height(),
                     mCurrentWeekDayTextColor);
@@ -343,23 +629,106 @@ public abstract class CalendarView extends ViewGroup implements GestureDetector.
             decorationTopOffset = (int) ((mDecorationSize - mReusableTextBound.height()) / 2);
         }
 
-        canvas.drawText(dayStrings[cellNumber].getDayString(),
+        drawDayNumber(renderer, dayStrings[cellNumber].getDayString(),
                 dayCells[cellNumber].left + mBetweenSiblingsPadding + decorationLeftOffset,
                 dayCells[cellNumber].top + mBetweenSiblingsPadding + mReusableTextBound.height() + decorationTopOffset + topOffset,
                 mCurrentDayTextColor);
     }
 
-    protected void drawSelectedCell(Canvas canvas, RectF[] dayCells, int selectedCell) {
+    // Day numbers from a digit atlas
+    private static final int MAX_DIGIT_ATLASES = 4;
+    boolean mUseDigitAtlas;
+    final ArrayList<DigitAtlas> mDigitAtlases = new ArrayList<>();
+
+    /**
+     * Draws day numbers copying digits from an atlas instead of drawing text,
+     * see {@link DigitAtlasBenchmark} to find out if it is worth it on a device
+     */
+    public void setUseDigitAtlas(boolean useDigitAtlas) {
+        if (useDigitAtlas == mUseDigitAtlas) return;
+
+        mUseDigitAtlas = useDigitAtlas;
+        if (!useDigitAtlas) {
+            for (DigitAtlas digitAtlas : mDigitAtlases) {
+                digitAtlas.recycle();
+            }
+            mDigitAtlases.clear();
+        }
+        invalidate();
+    }
+
+    public boolean isUsingDigitAtlas() {
+        return mUseDigitAtlas;
+    }
+
+    protected void drawDayNumber(CalendarRenderer renderer, String dayString, float x, float y, Paint paint) {
+        // The atlas is a bitmap, only canvases can use it
+        if (mUseDigitAtlas && renderer instanceof CanvasRenderer &&
+                getDigitAtlas(paint).drawText(((CanvasRenderer) renderer).getCanvas(), dayString, x, y, paint)) return;
+
+        renderer.drawText(dayString, x, y, paint);
+    }
+
+    private DigitAtlas getDigitAtlas(Paint paint) {
+        // Colors share an atlas, only sizes and typefaces need their own
+        for (int i = 0; i < mDigitAtlases.size(); i++) {
+            if (mDigitAtlases.get(i).matches(paint)) {
+                return mDigitAtlases.get(i);
+            }
+        }
+
+        if (mDigitAtlases.size() == MAX_DIGIT_ATLASES) {
+            mDigitAtlases.remove(0).recycle();
+        }
+        DigitAtlas digitAtlas = new DigitAtlas(paint);
+        mDigitAtlases.add(digitAtlas);
+        return digitAtlas;
+    }
+
+    protected void drawSelectedCells(CalendarRenderer renderer, RectF[] dayCells, long selectedCells) {
+        if (selectedCells == 0) return;
+
+        // One rectangle for every run of contiguous selected cells in a row
+        for (int firstCellInRow = 0; firstCellInRow < dayCells.length; firstCellInRow += DAYS_IN_WEEK) {
+            int runStart = INITIAL;
+            for (int cell = firstCellInRow; cell <= firstCellInRow + DAYS_IN_WEEK; cell++) {
+                boolean selected = cell < firstCellInRow + DAYS_IN_WEEK && isCellSelected(selectedCells, cell);
+                if (selected && runStart == INITIAL) {
+                    runStart = cell;
+                } else if (!selected && runStart != INITIAL) {
+                    renderer.drawRect(dayCells[runStart].left,
+                            dayCells[runStart].top,
+                            dayCells[cell - 1].right,
+                            dayCells[cell - 1].bottom, mSelectedBackgroundColor);
+                    runStart = INITIAL;
+                }
+            }
+        }
+    }
+
+    protected void drawSelectedCell(CalendarRenderer renderer, RectF[] dayCells, int selectedCell) {
         // And then the selection with padding to the background (so the background shows on the
         // left and right extremes):
         if (selectedCell > INITIAL) {
-            canvas.drawRect(dayCells[selectedCell].left,
+            renderer.drawRect(dayCells[selectedCell].left,
                     dayCells[selectedCell].top,
                     dayCells[selectedCell].right,
                     dayCells[selectedCell].bottom, mSelectedBackgroundColor);
         }
     }
 
+    /**
+     * Cell a dragged child would be dropped on, drawn like a selection under the texts
+     */
+    protected void drawDropTarget(CalendarRenderer renderer, RectF[] dayCells) {
+        if (mDraggedChild == null || mDragTargetCell == INITIAL || mDragTargetCell == mDragSourceCell) return;
+
+        renderer.drawRect(dayCells[mDragTargetCell].left,
+                dayCells[mDragTargetCell].top,
+                dayCells[mDragTargetCell].right,
+                dayCells[mDragTargetCell].bottom, mSelectedBackgroundColor);
+    }
+
     private void recalculatePadding() {
         if (mIgnoreMaterialGrid) {
             mMaterialLeftRightPadding = 0f;
@@ -403,20 +772,47 @@ public abstract class CalendarView extends ViewGroup implements GestureDetector.
         calendar.set(Calendar.MILLISECOND, 0);
     }
 
+    // Weekday labels for every possible shift, only valid for the locale they were built for
+    private static final Object sWeekdaysLock = new Object();
+    private static Locale sWeekdaysLocale;
+    private static String[][] sWeekdaysByShift;
+
     public static String[] getWeekdaysForShift(int firstDayOfTheWeekShift) {
-        String[] weekDays = new String[DAYS_IN_WEEK];
-        String[] namesOfDays = new DateFormatSymbols().getShortWeekdays();
-
-        for (int i = 0; i < DAYS_IN_WEEK; i++) {
-            weekDays[i] = namesOfDays[1 + (DAYS_IN_WEEK - firstDayOfTheWeekShift + i) % DAYS_IN_WEEK]
-                    .toUpperCase();
-            if (Locale.getDefault().getISO3Language().equalsIgnoreCase("zho")) {
-                weekDays[i] = weekDays[i].substring(1, 2);
-            } else {
-                weekDays[i] = weekDays[i].substring(0, 1);
+        return getCachedWeekdaysForShift(firstDayOfTheWeekShift).clone();
+    }
+
+    /**
+     * Shared between all the views, don't modify the result
+     */
+    protected static String[] getCachedWeekdaysForShift(int firstDayOfTheWeekShift) {
+        Locale locale = Locale.getDefault();
+        synchronized (sWeekdaysLock) {
+            // Rebuild everything if the locale changed since the last time
+            if (sWeekdaysByShift == null || !locale.equals(sWeekdaysLocale)) {
+                sWeekdaysByShift = buildWeekdaysForLocale(locale);
+                sWeekdaysLocale = locale;
             }
+            return sWeekdaysByShift[firstDayOfTheWeekShift];
         }
-        return weekDays;
+    }
+
+    private static String[][] buildWeekdaysForLocale(Locale locale) {
+        String[] namesOfDays = new DateFormatSymbols(locale).getShortWeekdays();
+        boolean useSecondCharacter = locale.getISO3Language().equalsIgnoreCase("zho");
+
+        String[][] weekdaysByShift = new String[DAYS_IN_WEEK][DAYS_IN_WEEK];
+        for (int shift = 0; shift < DAYS_IN_WEEK; shift++) {
+            for (int i = 0; i < DAYS_IN_WEEK; i++) {
+                String weekDay = namesOfDays[1 + (DAYS_IN_WEEK - shift + i) % DAYS_IN_WEEK]
+                        .toUpperCase(locale);
+                if (useSecondCharacter) {
+                    weekdaysByShift[shift][i] = weekDay.substring(1, 2);
+                } else {
+                    weekdaysByShift[shift][i] = weekDay.substring(0, 1);
+                }
+            }
+        }
+        return weekdaysByShift;
     }
 
     // Common interface
@@ -477,6 +873,50 @@ public abstract class CalendarView extends ViewGroup implements GestureDetector.
 
     public abstract DayMetadata getSelectedDay();
 
+    // Day key versions of the interface, to handle days without allocations
+    public abstract void setCurrentDayKey(int dayKey);
+
+    public abstract void setSelectedDayKey(int dayKey);
+
+    /**
+     * @return The {@link DayKey} of the selected day or {@link DayKey#NONE}
+     */
+    public abstract int getSelectedDayKey();
+
+    /**
+     * @return The cell showing the day or {@link #INITIAL} if the day can't be used in this view
+     */
+    public int getCellForDayKey(int dayKey) {
+        int firstDayKey = getDayKeyForCell(0);
+        if (firstDayKey == DayKey.NONE || dayKey == DayKey.NONE) return INITIAL;
+
+        int cell = dayKey - firstDayKey;
+        if (cell < 0 || cell >= getCellCount()) return INITIAL;
+        return cell;
+    }
+
+    public void addViewToDayKey(int dayKey, View viewToAppend) {
+        int cell = getCellForDayKey(dayKey);
+        if (cell != INITIAL) {
+            addViewToCell(cell, viewToAppend);
+        }
+    }
+
+    public ArrayList<View> getDayKeyContent(int dayKey) {
+        int cell = getCellForDayKey(dayKey);
+        if (cell != INITIAL) {
+            return getCellContent(cell);
+        }
+        return null;
+    }
+
+    public void setDayKeyContent(int dayKey, ArrayList<View> newContent) {
+        int cell = getCellForDayKey(dayKey);
+        if (cell != INITIAL) {
+            setCellContent(cell, newContent);
+        }
+    }
+
     public abstract int getSelectedCell();
 
     public abstract void addViewToDay(DayMetadata dayMetadata, View viewToAppend);
@@ -491,6 +931,824 @@ public abstract class CalendarView extends ViewGroup implements GestureDetector.
 
     public abstract void setCellContent(int cellNumber, ArrayList<View> newContent);
 
+    public abstract int getCellCount();
+
+    protected abstract RectF[] getDayCells();
+
+    public int getCellNumberFromLocation(float x, float y) {
+        RectF[] dayCells = getDayCells();
+        for (int i = 0; i < dayCells.length; i++) {
+            if (dayCells[i] != null && dayCells[i].contains(x, y)) {
+                return i;
+            }
+        }
+        return INITIAL;
+    }
+
+    /**
+     * @return The {@link DayKey} of the day shown on the cell or {@link DayKey#NONE} if the cell
+     * is not part of the grid
+     */
+    public abstract int getDayKeyForCell(int cellNumber);
+
+    // Multiple and range selection
+    public interface SelectionListener {
+        void onSelectionChanged(CalendarView calendarView);
+    }
+
+    protected SelectionListener mSelectionListener;
+
+    public void setSelectionListener(SelectionListener listener) {
+        this.mSelectionListener = listener;
+    }
+
+    /**
+     * {@link #SELECTION_SINGLE} uses the selected day, {@link #SELECTION_MULTIPLE} toggles days
+     * when tapped and {@link #SELECTION_RANGE} selects the days between where the finger went
+     * down and where it is dragged to. Changing the mode clears the multiple/range selection.
+     */
+    public void setSelectionMode(@PossibleSelectionMode int selectionMode) {
+        if (selectionMode != mSelectionMode) {
+            mSelectionMode = selectionMode;
+            mRangeAnchorCell = INITIAL;
+            mRangeLastCell = INITIAL;
+            setSelectedCells(0);
+        }
+    }
+
+    public int getSelectionMode() {
+        return mSelectionMode;
+    }
+
+    public void clearSelection() {
+        setSelectedCells(0);
+    }
+
+    public boolean isCellSelected(int cellNumber) {
+        return isCellSelected(mSelectedCells, cellNumber);
+    }
+
+    public void setCellSelected(int cellNumber, boolean selected) {
+        if (cellNumber < 0 || cellNumber >= Math.min(getCellCount(), MAX_SELECTABLE_CELLS)) return;
+
+        long cellBit = 1L << cellNumber;
+        if (selected) {
+            setSelectedCells((mSelectedCells | cellBit) & getSelectableCells());
+        } else {
+            setSelectedCells(mSelectedCells & ~cellBit);
+        }
+    }
+
+    public void setDayKeySelected(int dayKey, boolean selected) {
+        int cell = getCellForDayKey(dayKey);
+        if (cell != INITIAL) {
+            setCellSelected(cell, selected);
+        }
+    }
+
+    /**
+     * Selects the days between both days, inclusive, that are visible in this view
+     */
+    public void setSelectedRange(int firstDayKey, int lastDayKey) {
+        int firstDayKeyOfGrid = getDayKeyForCell(0);
+        int cellCount = Math.min(getCellCount(), MAX_SELECTABLE_CELLS);
+        int firstCell = Math.max(firstDayKey - firstDayKeyOfGrid, 0);
+        int lastCell = Math.min(lastDayKey - firstDayKeyOfGrid, cellCount - 1);
+        if (firstDayKeyOfGrid == DayKey.NONE || firstCell > lastCell) {
+            setSelectedCells(0);
+        } else {
+            setSelectedCells(getCellRange(firstCell, lastCell) & getSelectableCells());
+        }
+    }
+
+    public int getSelectedCellCount() {
+        return Long.bitCount(mSelectedCells);
+    }
+
+    /**
+     * @return The {@link DayKey}s of the days selected on multiple and range selection, in order
+     */
+    public int[] getSelectedDayKeys() {
+        int[] selectedDayKeys = new int[getSelectedCellCount()];
+        int firstDayKeyOfGrid = getDayKeyForCell(0);
+        int i = 0;
+        for (long remaining = mSelectedCells; remaining != 0; remaining &= remaining - 1) {
+            selectedDayKeys[i++] = firstDayKeyOfGrid + Long.numberOfTrailingZeros(remaining);
+        }
+        return selectedDayKeys;
+    }
+
+    /**
+     * @return The cells that can be part of the multiple or range selection, one bit per cell
+     */
+    protected long getSelectableCells() {
+        int cellCount = Math.min(getCellCount(), MAX_SELECTABLE_CELLS);
+        return cellCount == 0 ? 0 : getCellRange(0, cellCount - 1);
+    }
+
+    protected static long getCellRange(int firstCell, int lastCell) {
+        return (-1L >>> (MAX_SELECTABLE_CELLS - 1 - lastCell)) & (-1L << firstCell);
+    }
+
+    protected static boolean isCellSelected(long selectedCells, int cellNumber) {
+        return cellNumber >= 0 && cellNumber < MAX_SELECTABLE_CELLS &&
+                (selectedCells & (1L << cellNumber)) != 0;
+    }
+
+    protected void setSelectedCells(long selectedCells) {
+        long changedCells = selectedCells ^ mSelectedCells;
+        if (changedCells == 0) return;
+
+        mSelectedCells = selectedCells;
+        invalidateCells(changedCells);
+
+        if (mSelectionListener != null) {
+            mSelectionListener.onSelectionChanged(this);
+        }
+    }
+
+    /**
+     * Invalidates only the area covered by the given cells, one bit per cell
+     */
+    protected void invalidateCells(long cells) {
+        RectF[] dayCells = getDayCells();
+        mReusableInvalidationBound.setEmpty();
+        for (long remaining = cells; remaining != 0; remaining &= remaining - 1) {
+            int cell = Long.numberOfTrailingZeros(remaining);
+            if (cell >= dayCells.length || dayCells[cell] == null) {
+                // Never measured, there is nothing to keep
+                invalidate();
+                return;
+            }
+            mReusableInvalidationBound.union((int) dayCells[cell].left, (int) dayCells[cell].top,
+                    (int) Math.ceil(dayCells[cell].right), (int) Math.ceil(dayCells[cell].bottom));
+        }
+        if (!mReusableInvalidationBound.isEmpty()) {
+            invalidate(mReusableInvalidationBound);
+        }
+    }
+
+    protected void startRangeSelection(MotionEvent e) {
+        if (mSelectionMode != SELECTION_RANGE) return;
+
+        int cell = getCellNumberFromLocation(e.getX(), e.getY());
+        if (!isCellSelected(getSelectableCells(), cell)) return;
+
+        // Don't let our parents steal the drag
+        if (getParent() != null) {
+            getParent().requestDisallowInterceptTouchEvent(true);
+        }
+        mRangeAnchorCell = cell;
+        mRangeLastCell = cell;
+        setSelectedCells(1L << cell);
+    }
+
+    protected boolean extendRangeSelection(MotionEvent e) {
+        if (mSelectionMode != SELECTION_RANGE || mRangeAnchorCell == INITIAL) return false;
+
+        int cell = getCellNumberFromLocation(e.getX(), e.getY());
+        if (cell != mRangeLastCell && isCellSelected(getSelectableCells(), cell)) {
+            mRangeLastCell = cell;
+            setSelectedCells(getCellRange(Math.min(mRangeAnchorCell, cell),
+                    Math.max(mRangeAnchorCell, cell)) & getSelectableCells());
+        }
+        return true;
+    }
+
+    protected void toggleMultipleSelection(MotionEvent e) {
+        if (mSelectionMode != SELECTION_MULTIPLE) return;
+
+        int cell = getCellNumberFromLocation(e.getX(), e.getY());
+        if (isCellSelected(getSelectableCells(), cell)) {
+            setCellSelected(cell, !isCellSelected(cell));
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        int action = event.getActionMasked();
+        if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+            mRangeAnchorCell = INITIAL;
+            mRangeLastCell = INITIAL;
+        }
+
+        if (mDraggedChild != null) {
+            if (action == MotionEvent.ACTION_MOVE) {
+                updateChildDrag(event.getX(), event.getY());
+            } else if (action == MotionEvent.ACTION_UP) {
+                updateChildDrag(event.getX(), event.getY());
+                endChildDrag(true);
+            } else if (action == MotionEvent.ACTION_CANCEL) {
+                endChildDrag(false);
+            }
+            // The detector is in a long press, it only needs to see the gesture end
+            mDetector.onTouchEvent(event);
+            return true;
+        }
+        return mDetector.onTouchEvent(event);
+    }
+
+    // Dragging children between days
+    public static final float DRAG_SOURCE_ALPHA = 0.3f;
+
+    public interface ChildDragListener {
+        /**
+         * A long press started dragging a child, return false to keep it where it is
+         */
+        boolean onChildDragStarted(CalendarView calendarView, int dayKey, View child);
+
+        void onChildDropped(CalendarView calendarView, View child, int fromDayKey, int toDayKey);
+    }
+
+    protected ChildDragListener mChildDragListener;
+    View mDraggedChild;
+    float mDraggedChildAlpha;
+    int mDragSourceCell = INITIAL;
+    int mDragTargetCell = INITIAL;
+    float mDragX;
+    float mDragY;
+    float mDragTouchOffsetX;
+    float mDragTouchOffsetY;
+
+    /**
+     * Setting a listener enables dragging the content of a day to another one with a long press.
+     * Only the two days involved are measured and laid out again on drop.
+     */
+    public void setChildDragListener(ChildDragListener listener) {
+        if (listener == null) {
+            endChildDrag(false);
+        }
+        this.mChildDragListener = listener;
+    }
+
+    public boolean isDraggingChild() {
+        return mDraggedChild != null;
+    }
+
+    protected boolean startChildDrag(MotionEvent e) {
+        if (mChildDragListener == null || mDraggedChild != null) return false;
+
+        float x = e.getX();
+        float y = e.getY();
+        int cellNumber = getCellNumberFromLocation(x, y);
+        View child = findChildInCell(cellNumber, x, y);
+        if (child == null) return false;
+
+        // Only the content of the days can move, not views the calendar manages
+        ArrayList<View> cellContent = getCellContent(cellNumber);
+        if (cellContent == null || !cellContent.contains(child)) return false;
+
+        int dayKey = getDayKeyForCell(cellNumber);
+        if (dayKey == DayKey.NONE || !mChildDragListener.onChildDragStarted(this, dayKey, child)) {
+            return false;
+        }
+
+        mDraggedChild = child;
+        mDraggedChildAlpha = child.getAlpha();
+        child.setAlpha(DRAG_SOURCE_ALPHA);
+        mDragSourceCell = cellNumber;
+        mDragTargetCell = cellNumber;
+        mDragTouchOffsetX = x - child.getLeft();
+        mDragTouchOffsetY = y + getChildLayoutOffset() - child.getTop();
+        mRangeAnchorCell = INITIAL;
+        mRangeLastCell = INITIAL;
+        updateChildDrag(x, y);
+        return true;
+    }
+
+    protected void updateChildDrag(float x, float y) {
+        if (mDraggedChild == null) return;
+
+        mDragX = x;
+        mDragY = y;
+        int cellNumber = getCellNumberFromLocation(x, y);
+        if (cellNumber != INITIAL && getDayKeyForCell(cellNumber) != DayKey.NONE) {
+            mDragTargetCell = cellNumber;
+        }
+        invalidate();
+    }
+
+    protected void endChildDrag(boolean drop) {
+        View child = mDraggedChild;
+        if (child == null) return;
+
+        int fromCell = mDragSourceCell;
+        int toCell = mDragTargetCell;
+        child.setAlpha(mDraggedChildAlpha);
+        mDraggedChild = null;
+        mDragSourceCell = INITIAL;
+        mDragTargetCell = INITIAL;
+        invalidate();
+
+        if (!drop || toCell == INITIAL || toCell == fromCell) return;
+
+        int fromDayKey = getDayKeyForCell(fromCell);
+        int toDayKey = getDayKeyForCell(toCell);
+        if (!moveChildBetweenCells(child, fromCell, toCell)) return;
+
+        relayoutCell(fromCell);
+        relayoutCell(toCell);
+        if (mChildDragListener != null) {
+            mChildDragListener.onChildDropped(this, child, fromDayKey, toDayKey);
+        }
+    }
+
+    /**
+     * Measures and lays out the content of a single cell, without a layout pass for the whole view
+     */
+    protected void relayoutCell(int cellNumber) {
+        if (getWidth() == 0 || getHeight() == 0) {
+            requestLayout();
+            return;
+        }
+
+        measureCell(cellNumber);
+        layoutCell(cellNumber);
+        invalidate();
+    }
+
+    protected abstract void measureCell(int cellNumber);
+
+    protected abstract void layoutCell(int cellNumber);
+
+    protected abstract boolean moveChildBetweenCells(View child, int fromCell, int toCell);
+
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        super.dispatchDraw(canvas);
+
+        // The shadow is the child drawn again under the finger, no bitmaps involved
+        if (mDraggedChild != null) {
+            int saveCount = canvas.save();
+            canvas.translate(mDragX - mDragTouchOffsetX, mDragY - mDragTouchOffsetY);
+            mDraggedChild.draw(canvas);
+            canvas.restoreToCount(saveCount);
+        }
+    }
+
+    // Content updates from other threads
+    static final class ContentUpdate {
+        static final int ADD_VIEW = 0;
+        static final int SET_CONTENT = 1;
+        static final int SET_MARKERS = 2;
+
+        final int type;
+        final int dayKey;
+        final View view;
+        final ArrayList<View> content;
+        final int[] markerColors;
+
+        ContentUpdate(int type, int dayKey, View view, ArrayList<View> content, int[] markerColors) {
+            this.type = type;
+            this.dayKey = dayKey;
+            this.view = view;
+            this.content = content;
+            this.markerColors = markerColors;
+        }
+    }
+
+    final ConcurrentLinkedQueue<ContentUpdate> mPendingUpdates = new ConcurrentLinkedQueue<>();
+    final AtomicBoolean mUpdatesScheduled = new AtomicBoolean();
+    // Not the view's own queue, a detached view keeps that one on the posting thread
+    final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable mApplyPendingUpdates = new Runnable() {
+        @Override
+        public void run() {
+            applyPendingUpdates();
+        }
+    };
+
+    /**
+     * Can be called from any thread, attached or not, the view gets it on the UI thread along
+     * with every other update posted until then
+     */
+    public void postAddViewToDayKey(int dayKey, View viewToAppend) {
+        if (viewToAppend == null) return;
+        postUpdate(new ContentUpdate(ContentUpdate.ADD_VIEW, dayKey, viewToAppend, null, null));
+    }
+
+    /**
+     * Can be called from any thread, the list is copied so it can be reused right away
+     */
+    public void postSetDayKeyContent(int dayKey, ArrayList<View> newContent) {
+        ArrayList<View> content = newContent == null ? new ArrayList<View>() : new ArrayList<>(newContent);
+        postUpdate(new ContentUpdate(ContentUpdate.SET_CONTENT, dayKey, null, content, null));
+    }
+
+    /**
+     * Can be called from any thread, the colors are copied so they can be reused right away
+     */
+    public void postDayMarkers(int dayKey, int... colors) {
+        int[] markerColors = colors == null ? new int[0] : colors.clone();
+        postUpdate(new ContentUpdate(ContentUpdate.SET_MARKERS, dayKey, null, null, markerColors));
+    }
+
+    private void postUpdate(ContentUpdate update) {
+        if (update.dayKey == DayKey.NONE) return;
+
+        mPendingUpdates.offer(update);
+        // Only the first update since the last drain needs to ask for a frame
+        if (mUpdatesScheduled.compareAndSet(false, true)) {
+            mMainHandler.post(mApplyPendingUpdates);
+        }
+    }
+
+    /**
+     * Applies everything posted so far, has to be called on the UI thread.
+     * Changes only request a layout and invalidate, so they all end up in the same pass.
+     */
+    public void applyPendingUpdates() {
+        // Anything posted from now on needs another frame
+        mUpdatesScheduled.set(false);
+
+        ContentUpdate update;
+        while ((update = mPendingUpdates.poll()) != null) {
+            switch (update.type) {
+                case ContentUpdate.ADD_VIEW:
+                    addViewToDayKey(update.dayKey, update.view);
+                    break;
+                case ContentUpdate.SET_CONTENT:
+                    setDayKeyContent(update.dayKey, update.content);
+                    break;
+                case ContentUpdate.SET_MARKERS:
+                    setDayMarkers(update.dayKey, update.markerColors);
+                    break;
+            }
+        }
+    }
+
+    // Content snapshots
+    public interface ContentSnapshotAdapter {
+        /**
+         * Stable id of a view in a day, or {@link ContentSnapshot#NO_ID} to leave it out
+         */
+        long getItemId(int dayKey, View view);
+
+        int getItemViewType(int dayKey, View view);
+
+        /**
+         * The view for an item, if it can be had right away (from a cache for example), null otherwise
+         */
+        View getView(int dayKey, long id, int viewType, CalendarView parent);
+    }
+
+    protected ContentSnapshotAdapter mContentSnapshotAdapter;
+    ContentSnapshot mPendingContentSnapshot;
+
+    /**
+     * With an adapter the content is saved along the view state as ids and view types, and bound
+     * again through the adapter when the state is restored
+     */
+    public void setContentSnapshotAdapter(ContentSnapshotAdapter adapter) {
+        mContentSnapshotAdapter = adapter;
+
+        // We might have been restored before getting one
+        if (adapter != null && mPendingContentSnapshot != null) {
+            ContentSnapshot contentSnapshot = mPendingContentSnapshot;
+            mPendingContentSnapshot = null;
+            restoreContentSnapshot(contentSnapshot);
+        }
+    }
+
+    public ContentSnapshot createContentSnapshot() {
+        if (mContentSnapshotAdapter == null) return null;
+
+        int firstDayKey = getDayKeyForCell(0);
+        if (firstDayKey == DayKey.NONE) return null;
+
+        // Every item is a child, so we have enough room for all of them
+        int cellCount = getCellCount();
+        int[] cellOffsets = new int[cellCount + 1];
+        long[] ids = new long[getChildCount()];
+        int[] viewTypes = new int[ids.length];
+        int itemCount = 0;
+        for (int cell = 0; cell < cellCount; cell++) {
+            cellOffsets[cell] = itemCount;
+
+            ArrayList<View> cellContent = getCellContent(cell);
+            if (cellContent == null) continue;
+
+            int dayKey = firstDayKey + cell;
+            for (int i = 0; i < cellContent.size() && itemCount < ids.length; i++) {
+                View view = cellContent.get(i);
+                long id = mContentSnapshotAdapter.getItemId(dayKey, view);
+                if (id == ContentSnapshot.NO_ID) continue;
+
+                ids[itemCount] = id;
+                viewTypes[itemCount] = mContentSnapshotAdapter.getItemViewType(dayKey, view);
+                itemCount++;
+            }
+        }
+        cellOffsets[cellCount] = itemCount;
+
+        return new ContentSnapshot(firstDayKey, cellOffsets,
+                Arrays.copyOf(ids, itemCount), Arrays.copyOf(viewTypes, itemCount));
+    }
+
+    /**
+     * Adds the views the adapter has for the items of the snapshot to the days still visible,
+     * next to the content they have already. Items that are already there are not added again.
+     * If there is no adapter yet, it waits for one.
+     */
+    public void restoreContentSnapshot(ContentSnapshot contentSnapshot) {
+        if (contentSnapshot == null) return;
+        if (mContentSnapshotAdapter == null) {
+            mPendingContentSnapshot = contentSnapshot;
+            return;
+        }
+
+        int firstDayKey = getDayKeyForCell(0);
+        if (firstDayKey == DayKey.NONE) return;
+
+        for (int i = 0; i < contentSnapshot.getDayCount(); i++) {
+            int dayKey = contentSnapshot.mFirstDayKey + i;
+            int cell = dayKey - firstDayKey;
+            if (cell < 0 || cell >= getCellCount()) continue;
+
+            int firstItem = contentSnapshot.mCellOffsets[i];
+            int lastItem = contentSnapshot.mCellOffsets[i + 1];
+            if (firstItem == lastItem) continue;
+
+            ArrayList<View> cellContent = getCellContent(cell);
+            if (cellContent == null) cellContent = new ArrayList<>();
+            int loadedCount = cellContent.size();
+            for (int item = firstItem; item < lastItem; item++) {
+                if (isItemInCell(dayKey, cellContent, loadedCount, contentSnapshot.mIds[item])) continue;
+
+                View view = mContentSnapshotAdapter.getView(dayKey, contentSnapshot.mIds[item],
+                        contentSnapshot.mViewTypes[item], this);
+                // A view still on another day would throw when added again
+                if (view == null || view.getParent() != null || cellContent.contains(view)) continue;
+
+                cellContent.add(view);
+            }
+            if (cellContent.size() != loadedCount) {
+                setCellContent(cell, cellContent);
+            }
+        }
+    }
+
+    private boolean isItemInCell(int dayKey, ArrayList<View> cellContent, int count, long id) {
+        for (int i = 0; i < count; i++) {
+            if (mContentSnapshotAdapter.getItemId(dayKey, cellContent.get(i)) == id) return true;
+        }
+        return false;
+    }
+
+    // Cached frames
+    protected RenderCache mRenderCache;
+    Bitmap mCachedFrame;
+    String mCachedFrameKey;
+    boolean mWaitingForContent;
+    // Frame drawn for the current days once the content was in place, to save to the cache
+    Bitmap mCapturedFrame;
+    String mCapturedFrameKey;
+    Canvas mCaptureCanvas;
+    boolean mFrameCapturePosted;
+    final Runnable mFrameCapture = new Runnable() {
+        @Override
+        public void run() {
+            mFrameCapturePosted = false;
+            captureFrame();
+        }
+    };
+
+    /**
+     * With a cache the view shows the last frame it rendered for the same days and size, until
+     * {@link #dismissCachedFrame()} is called when the content is in place.
+     * The first frame drawn after that call is copied, and saved when the view is detached or
+     * moves to other days, so the cache never keeps an empty calendar. Call it again after
+     * the content changes to keep a newer frame.
+     */
+    public void setRenderCache(RenderCache renderCache) {
+        releaseCapturedFrame();
+        mRenderCache = renderCache;
+        waitForContent();
+    }
+
+    public void dismissCachedFrame() {
+        mWaitingForContent = false;
+        mCapturedFrameKey = null; // Captured again on the next draw
+        if (mCachedFrame != null) {
+            mCachedFrame = null;
+        }
+        invalidate();
+    }
+
+    public boolean isShowingCachedFrame() {
+        return mCachedFrame != null;
+    }
+
+    protected String getRenderCacheKey() {
+        int firstDayKey = getDayKeyForCell(0);
+        if (firstDayKey == DayKey.NONE || getWidth() == 0 || getHeight() == 0) return null;
+
+        return getClass().getSimpleName() + "_" + firstDayKey + "_" + getCellCount() +
+                "_" + getWidth() + "x" + getHeight();
+    }
+
+    /**
+     * Every change of the days shown (date, first day of the week, number of days) calls this
+     * before changing them, so the frame of the days being left is saved
+     */
+    protected void onDaysChanging() {
+        saveFrameToCache();
+    }
+
+    /**
+     * Every change of the days shown calls this after changing them
+     * @param contentInPlace If the content of the new days is there already, like when it was
+     *                       retained, otherwise their cached frame shows until it's dismissed
+     */
+    protected void onDaysChanged(boolean contentInPlace) {
+        if (contentInPlace) {
+            dismissCachedFrame();
+        } else {
+            waitForContent();
+        }
+    }
+
+    /**
+     * The days changed, show the cached frame for them if there is one
+     */
+    protected void waitForContent() {
+        mCachedFrame = null;
+        mCachedFrameKey = null;
+        mCapturedFrameKey = null;
+        mWaitingForContent = mRenderCache != null;
+        loadCachedFrame();
+        invalidate();
+    }
+
+    private void loadCachedFrame() {
+        String key = getRenderCacheKey();
+        if (mRenderCache == null || !mWaitingForContent || key == null || key.equals(mCachedFrameKey)) return;
+
+        mCachedFrameKey = key;
+        mCachedFrame = null;
+        mRenderCache.get(key, new RenderCache.Callback() {
+            @Override
+            public void onFrameLoaded(String loadedKey, Bitmap frame) {
+                // The content might have arrived first, or we moved to other days
+                if (frame == null || !mWaitingForContent || !loadedKey.equals(mCachedFrameKey)) return;
+
+                mCachedFrame = frame;
+                invalidate();
+            }
+        });
+    }
+
+    /**
+     * Hands the frame captured for the current days to the cache, nothing is drawn here
+     */
+    public void saveFrameToCache() {
+        String key = getRenderCacheKey();
+        if (mRenderCache == null || mWaitingForContent || key == null ||
+                mCapturedFrame == null || !key.equals(mCapturedFrameKey)) return;
+
+        // The cache owns it now, it comes back through obtainFrame once written
+        mRenderCache.put(key, mCapturedFrame);
+        mCapturedFrame = null;
+        mCapturedFrameKey = null;
+        mCaptureCanvas.setBitmap(null);
+    }
+
+    private void scheduleFrameCapture() {
+        if (mFrameCapturePosted || mRenderCache == null || mWaitingForContent || mCapturedFrameKey != null) return;
+
+        mFrameCapturePosted = true;
+        post(mFrameCapture);
+    }
+
+    private void captureFrame() {
+        String key = getRenderCacheKey();
+        if (mRenderCache == null || mWaitingForContent || mCachedFrame != null ||
+                key == null || key.equals(mCapturedFrameKey)) return;
+
+        if (mCapturedFrame != null &&
+                (mCapturedFrame.getWidth() != getWidth() || mCapturedFrame.getHeight() != getHeight())) {
+            releaseCapturedFrame();
+        }
+        if (mCapturedFrame == null) {
+            mCapturedFrame = mRenderCache.obtainFrame(getWidth(), getHeight());
+            if (mCaptureCanvas == null) mCaptureCanvas = new Canvas();
+            mCaptureCanvas.setBitmap(mCapturedFrame);
+        } else {
+            mCapturedFrame.eraseColor(Color.TRANSPARENT);
+        }
+
+        try {
+            super.draw(mCaptureCanvas);
+            mCapturedFrameKey = key;
+        } catch (IllegalArgumentException e) {
+            // Children with hardware bitmaps can't be drawn in software, these days aren't cached
+            releaseCapturedFrame();
+        }
+    }
+
+    private void releaseCapturedFrame() {
+        if (mCapturedFrame == null) return;
+
+        mRenderCache.recycleFrame(mCapturedFrame);
+        mCapturedFrame = null;
+        mCapturedFrameKey = null;
+        mCaptureCanvas.setBitmap(null);
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        // Stands for the whole view, children included
+        if (mCachedFrame != null) {
+            canvas.drawBitmap(mCachedFrame, 0, 0, null);
+            return;
+        }
+
+        super.draw(canvas);
+        // Copied after the frame, the screen always gets the real one
+        scheduleFrameCapture();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        saveFrameToCache();
+        releaseCapturedFrame();
+        removeCallbacks(mFrameCapture);
+        mFrameCapturePosted = false;
+        // Detached children wouldn't hear about the window going away
+        if (mContentCache != null) mContentCache.clear();
+        super.onDetachedFromWindow();
+    }
+
+    // Content retention
+    ContentCache mContentCache;
+    boolean mShowingRetainedContent;
+    private final ContentCache.Owner mContentCacheOwner = new ContentCache.Owner() {
+        @Override
+        public void onContentDiscarded(View view) {
+            removeDetachedView(view, false);
+        }
+    };
+    private final CellContent.Visitor mDetachContent = new CellContent.Visitor() {
+        @Override
+        public void onView(int cellNumber, int index, View view) {
+            detachViewFromParent(view);
+        }
+    };
+    private final CellContent.Visitor mAttachContent = new CellContent.Visitor() {
+        @Override
+        public void onView(int cellNumber, int index, View view) {
+            attachViewToParent(view, -1, view.getLayoutParams());
+        }
+    };
+
+    /**
+     * Keeps the children of the last pages shown (months or weeks) when moving to other days,
+     * up to maxViews children, so going back to them doesn't need loading their content again.
+     * Use {@link #isShowingRetainedContent()} after changing the date to know if it's needed.
+     * 0 stops keeping them.
+     */
+    public void setContentRetention(int maxViews) {
+        if (mContentCache != null) {
+            if (mContentCache.getMaxViews() == maxViews) return;
+            mContentCache.clear();
+        }
+        mContentCache = maxViews > 0 ? new ContentCache(mContentCacheOwner, maxViews) : null;
+    }
+
+    /**
+     * @return If the content being shown was kept from the last time these days were shown
+     */
+    public boolean isShowingRetainedContent() {
+        return mShowingRetainedContent;
+    }
+
+    /**
+     * Detaches the children of the page being left and keeps them, if retention is on
+     * @return If the children were kept, otherwise they are still attached
+     */
+    protected boolean retainContent(int key, CellContent content) {
+        if (mContentCache == null || content == null) return false;
+
+        content.forEach(mDetachContent);
+        mContentCache.put(key, content);
+        return true;
+    }
+
+    /**
+     * Attaches the children kept for the page being shown, without measuring them again
+     * @return The children of each cell, or null if there were none kept
+     */
+    protected CellContent restoreRetainedContent(int key, int cellCount) {
+        CellContent content = mContentCache == null ? null : mContentCache.take(key, cellCount);
+        mShowingRetainedContent = content != null;
+        if (content == null) return null;
+
+        content.forEach(mAttachContent);
+        requestLayout();
+        invalidate();
+        return content;
+    }
+
     // Interaction
     protected GestureDetectorCompat mDetector;
     protected DaySelectionListener mDaySelectionListener;
@@ -505,6 +1763,96 @@ public abstract class CalendarView extends ViewGroup implements GestureDetector.
         this.mDaySelectionListener = listener;
     }
 
+    protected DayKeySelectionListener mDayKeySelectionListener;
+
+    public interface DayKeySelectionListener {
+        void onTapEnded(CalendarView calendarView, int dayKey);
+
+        void onLongClick(CalendarView calendarView, int dayKey);
+    }
+
+    public void setDayKeySelectedListener(DayKeySelectionListener listener) {
+        this.mDayKeySelectionListener = listener;
+    }
+
+    // Children
+    protected final ChildHitIndex mChildHitIndex = new ChildHitIndex();
+    protected ChildTapListener mChildTapListener;
+
+    public interface ChildTapListener {
+        void onChildTapped(CalendarView calendarView, int dayKey, View child);
+    }
+
+    /**
+     * Children don't get touches, the view resolves taps on them and reports them here.
+     * Only children that are completely visible in their day can be tapped.
+     */
+    public void setChildTapListener(ChildTapListener listener) {
+        this.mChildTapListener = listener;
+    }
+
+    public View getChildAtLocation(float x, float y) {
+        return findChildInCell(getCellNumberFromLocation(x, y), x, y);
+    }
+
+    protected View findChildInCell(int cellNumber, float x, float y) {
+        if (cellNumber == INITIAL) return null;
+        return mChildHitIndex.find(cellNumber, y + getChildLayoutOffset());
+    }
+
+    /**
+     * Distance between where children were laid out and where they are drawn
+     */
+    protected float getChildLayoutOffset() {
+        return 0;
+    }
+
+    protected boolean notifyChildTapped(float x, float y) {
+        if (mChildTapListener == null) return false;
+
+        int cellNumber = getCellNumberFromLocation(x, y);
+        View child = findChildInCell(cellNumber, x, y);
+        if (child == null) return false;
+
+        int dayKey = getDayKeyForCell(cellNumber);
+        if (dayKey == DayKey.NONE) return false;
+
+        mChildTapListener.onChildTapped(this, dayKey, child);
+        return true;
+    }
+
+    protected boolean notifyTapEnded(int cellNumber) {
+        int dayKey = getDayKeyForCell(cellNumber);
+        if (dayKey == DayKey.NONE) return false;
+
+        boolean notified = false;
+        if (mDayKeySelectionListener != null) {
+            mDayKeySelectionListener.onTapEnded(this, dayKey);
+            notified = true;
+        }
+        if (mDaySelectionListener != null) {
+            mDaySelectionListener.onTapEnded(this, getDayMetadataForCell(cellNumber));
+            notified = true;
+        }
+        return notified;
+    }
+
+    protected void notifyLongClick(int cellNumber) {
+        int dayKey = getDayKeyForCell(cellNumber);
+        if (dayKey == DayKey.NONE) return;
+
+        if (mDayKeySelectionListener != null) {
+            mDayKeySelectionListener.onLongClick(this, dayKey);
+        }
+        if (mDaySelectionListener != null) {
+            mDaySelectionListener.onLongClick(this, getDayMetadataForCell(cellNumber));
+        }
+    }
+
+    protected DayMetadata getDayMetadataForCell(int cellNumber) {
+        return DayMetadata.fromDayKey(getDayKeyForCell(cellNumber));
+    }
+
     private void setupInteraction(Context context) {
         mDetector = new GestureDetectorCompat(context, this);
         mDetector.setIsLongpressEnabled(true);
@@ -515,6 +1863,36 @@ public abstract class CalendarView extends ViewGroup implements GestureDetector.
         super.onSizeChanged(w, h, oldw, oldh);
         if (DEBUG) Log.d(toString() + "@" + System.identityHashCode(this),
              "onSizeChanged: " + "w: " + w + " h: " + h + " oldw: " + oldw + " oldh" + oldh);
+        loadCachedFrame();
+    }
+
+    // Pass counting
+    RenderStats mRenderStats;
+
+    /**
+     * Counts the passes of this view in the stats, null to stop counting
+     */
+    public void setRenderStats(RenderStats renderStats) {
+        mRenderStats = renderStats;
+    }
+
+    // Drawing
+    private final CanvasRenderer mCanvasRenderer = new CanvasRenderer();
+
+    /**
+     * Draws everything but the children, through the renderer
+     */
+    protected abstract void drawCalendar(CalendarRenderer renderer);
+
+    /**
+     * Draws the view as it is laid out into another backend, like a {@link SvgRenderer}
+     * or a {@link RecordingRenderer}. Children are not drawn.
+     */
+    public void render(CalendarRenderer renderer) {
+        if (getWidth() == 0 || getHeight() == 0) return; // Never got measured, nothing to draw
+
+        if (mRenderStats != null) mRenderStats.onDraw();
+        drawCalendar(renderer);
     }
 
     @Override
@@ -522,10 +1900,14 @@ public abstract class CalendarView extends ViewGroup implements GestureDetector.
         super.onDraw(canvas);
         if (DEBUG) Log.d(toString() + "@" + System.identityHashCode(this),
             "onDraw: " + canvas);
+
+        render(mCanvasRenderer.setCanvas(canvas));
+        mCanvasRenderer.setCanvas(null);
     }
 
     @Override
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        if (mRenderStats != null) mRenderStats.onLayout();
         if (DEBUG) Log.d(toString() + "@" + System.identityHashCode(this),
             "onLayout: " + " c: " + changed + " l: " + l + " t: " + t
             + " r: " + r + " b: " + b);
@@ -534,6 +1916,7 @@ public abstract class CalendarView extends ViewGroup implements GestureDetector.
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
         super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        if (mRenderStats != null) mRenderStats.onMeasure();
         if (DEBUG) Log.d(toString() + "@" + System.identityHashCode(this),
                 "onMeasure: " + "w: " + widthMeasureSpec + " h: " + heightMeasureSpec);
     }
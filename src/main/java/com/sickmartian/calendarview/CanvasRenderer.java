@@ -0,0 +1,82 @@
+package com.sickmartian.calendarview;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.drawable.Drawable;
+
+/**
+ * Draws straight to an Android {@link Canvas}, what the views use on screen.
+ * The same instance is pointed to the canvas of every frame.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class CanvasRenderer implements CalendarRenderer {
+
+    private Canvas mCanvas;
+
+    public CanvasRenderer() {
+    }
+
+    public CanvasRenderer(Canvas canvas) {
+        mCanvas = canvas;
+    }
+
+    public CanvasRenderer setCanvas(Canvas canvas) {
+        mCanvas = canvas;
+        return this;
+    }
+
+    public Canvas getCanvas() {
+        return mCanvas;
+    }
+
+    @Override
+    public void drawPaint(Paint paint) {
+        mCanvas.drawPaint(paint);
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+        mCanvas.drawRect(left, top, right, bottom, paint);
+    }
+
+    @Override
+    public void drawLine(float startX, float startY, float stopX, float stopY, Paint paint) {
+        mCanvas.drawLine(startX, startY, stopX, stopY, paint);
+    }
+
+    @Override
+    public void drawLines(float[] points, int count, Paint paint) {
+        mCanvas.drawLines(points, 0, count, paint);
+    }
+
+    @Override
+    public void drawCircle(float centerX, float centerY, float radius, Paint paint) {
+        mCanvas.drawCircle(centerX, centerY, radius, paint);
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, Paint paint) {
+        mCanvas.drawText(text, x, y, paint);
+    }
+
+    @Override
+    public void drawDrawable(Drawable drawable, int left, int top, int right, int bottom) {
+        drawable.setBounds(left, top, right, bottom);
+        drawable.draw(mCanvas);
+    }
+
+    @Override
+    public int save() {
+        return mCanvas.save();
+    }
+
+    @Override
+    public void clipRect(float left, float top, float right, float bottom) {
+        mCanvas.clipRect(left, top, right, bottom);
+    }
+
+    @Override
+    public void restoreToCount(int saveCount) {
+        mCanvas.restoreToCount(saveCount);
+    }
+}
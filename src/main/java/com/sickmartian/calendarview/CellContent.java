@@ -0,0 +1,217 @@
+package com.sickmartian.calendarview;
+
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The children of every cell of a view, in a single array. Each cell owns a segment of it,
+ * starting at its offset, and keeps free room at the end of the segment for more views.
+ * Adding to a full cell grows its segment by moving the following ones, so after content
+ * was loaded once, clearing and loading it again doesn't allocate.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class CellContent {
+
+    private static final int MIN_CELL_GROWTH = 4;
+
+    public interface Visitor {
+        void onView(int cellNumber, int index, View view);
+    }
+
+    private View[] mViews = new View[0];
+    // Cell i owns mViews[mOffsets[i], mOffsets[i + 1]) and uses the first mCounts[i]
+    private int[] mOffsets;
+    private int[] mCounts;
+    private int mTotalCount;
+
+    // Rotation copies here and swaps, the capacity is kept for the next time
+    private View[] mScratch = new View[0];
+    private int[] mScratchOffsets = new int[0];
+    private int[] mScratchCounts = new int[0];
+
+    CellContent(int cellCount) {
+        mOffsets = new int[cellCount + 1];
+        mCounts = new int[cellCount];
+    }
+
+    public int getCellCount() {
+        return mCounts.length;
+    }
+
+    public int getCount(int cellNumber) {
+        return mCounts[cellNumber];
+    }
+
+    public int getTotalCount() {
+        return mTotalCount;
+    }
+
+    public View get(int cellNumber, int index) {
+        if (index < 0 || index >= mCounts[cellNumber]) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + mCounts[cellNumber]);
+        }
+        return mViews[mOffsets[cellNumber] + index];
+    }
+
+    public int indexOf(int cellNumber, View view) {
+        int start = mOffsets[cellNumber];
+        for (int i = 0; i < mCounts[cellNumber]; i++) {
+            if (mViews[start + i] == view) return i;
+        }
+        return -1;
+    }
+
+    public boolean contains(int cellNumber, View view) {
+        return indexOf(cellNumber, view) != -1;
+    }
+
+    public void forEachInCell(int cellNumber, Visitor visitor) {
+        int start = mOffsets[cellNumber];
+        for (int i = 0; i < mCounts[cellNumber]; i++) {
+            visitor.onView(cellNumber, i, mViews[start + i]);
+        }
+    }
+
+    public void forEach(Visitor visitor) {
+        for (int cell = 0; cell < mCounts.length; cell++) {
+            forEachInCell(cell, visitor);
+        }
+    }
+
+    /**
+     * A copy of the content of the cell
+     */
+    public ArrayList<View> toList(int cellNumber) {
+        ArrayList<View> views = new ArrayList<>(mCounts[cellNumber]);
+        int start = mOffsets[cellNumber];
+        for (int i = 0; i < mCounts[cellNumber]; i++) {
+            views.add(mViews[start + i]);
+        }
+        return views;
+    }
+
+    void add(int cellNumber, View view) {
+        ensureCellCapacity(cellNumber, mCounts[cellNumber] + 1);
+        mViews[mOffsets[cellNumber] + mCounts[cellNumber]] = view;
+        mCounts[cellNumber]++;
+        mTotalCount++;
+    }
+
+    boolean remove(int cellNumber, View view) {
+        int index = indexOf(cellNumber, view);
+        if (index == -1) return false;
+
+        // Keep the order, views are stacked in it
+        int start = mOffsets[cellNumber];
+        int count = mCounts[cellNumber];
+        System.arraycopy(mViews, start + index + 1, mViews, start + index, count - index - 1);
+        mViews[start + count - 1] = null;
+        mCounts[cellNumber]--;
+        mTotalCount--;
+        return true;
+    }
+
+    void set(int cellNumber, List<View> views) {
+        clearCell(cellNumber);
+        ensureCellCapacity(cellNumber, views.size());
+        int start = mOffsets[cellNumber];
+        for (int i = 0; i < views.size(); i++) {
+            mViews[start + i] = views.get(i);
+        }
+        mCounts[cellNumber] = views.size();
+        mTotalCount += views.size();
+    }
+
+    void clearCell(int cellNumber) {
+        int start = mOffsets[cellNumber];
+        Arrays.fill(mViews, start, start + mCounts[cellNumber], null);
+        mTotalCount -= mCounts[cellNumber];
+        mCounts[cellNumber] = 0;
+    }
+
+    void clear() {
+        Arrays.fill(mViews, null);
+        Arrays.fill(mCounts, 0);
+        mTotalCount = 0;
+    }
+
+    /**
+     * Keeps the first cells, the views of the cells dropped have to be removed before
+     */
+    void setCellCount(int cellCount) {
+        int oldCellCount = mCounts.length;
+        if (cellCount == oldCellCount) return;
+
+        for (int cell = cellCount; cell < oldCellCount; cell++) {
+            clearCell(cell);
+        }
+        int end = mOffsets[Math.min(cellCount, oldCellCount)];
+        mOffsets = Arrays.copyOf(mOffsets, cellCount + 1);
+        mCounts = Arrays.copyOf(mCounts, cellCount);
+        // New cells start without room
+        for (int cell = oldCellCount + 1; cell <= cellCount; cell++) {
+            mOffsets[cell] = end;
+        }
+    }
+
+    /**
+     * Moves the content of every cell distance cells forward, wrapping around,
+     * like {@link java.util.Collections#rotate(List, int)}
+     */
+    void rotate(int distance) {
+        int cellCount = mCounts.length;
+        if (cellCount == 0) return;
+        distance = ((distance % cellCount) + cellCount) % cellCount;
+        if (distance == 0) return;
+
+        if (mScratch.length < mViews.length) {
+            mScratch = new View[mViews.length];
+        }
+        if (mScratchCounts.length < cellCount) {
+            mScratchOffsets = new int[cellCount + 1];
+            mScratchCounts = new int[cellCount];
+        }
+        int[] oldOffsets = mScratchOffsets;
+        int[] oldCounts = mScratchCounts;
+        System.arraycopy(mOffsets, 0, oldOffsets, 0, cellCount + 1);
+        System.arraycopy(mCounts, 0, oldCounts, 0, cellCount);
+
+        // Cell i ends up in (i + distance) % cellCount, segments move with their room
+        int position = 0;
+        for (int cell = 0; cell < cellCount; cell++) {
+            int from = (cell - distance + cellCount) % cellCount;
+            int size = oldOffsets[from + 1] - oldOffsets[from];
+            System.arraycopy(mViews, oldOffsets[from], mScratch, position, size);
+            mOffsets[cell] = position;
+            mCounts[cell] = oldCounts[from];
+            position += size;
+        }
+
+        View[] views = mViews;
+        mViews = mScratch;
+        mScratch = views;
+        Arrays.fill(mScratch, null);
+    }
+
+    private void ensureCellCapacity(int cellNumber, int capacity) {
+        int cellCapacity = mOffsets[cellNumber + 1] - mOffsets[cellNumber];
+        if (capacity <= cellCapacity) return;
+
+        int growth = Math.max(capacity - cellCapacity, Math.max(MIN_CELL_GROWTH, cellCapacity));
+        int end = mOffsets[mCounts.length];
+        if (end + growth > mViews.length) {
+            mViews = Arrays.copyOf(mViews, Math.max(end + growth, mViews.length * 2));
+        }
+
+        // Open the room right after the segment of the cell
+        int nextStart = mOffsets[cellNumber + 1];
+        System.arraycopy(mViews, nextStart, mViews, nextStart + growth, end - nextStart);
+        Arrays.fill(mViews, nextStart, nextStart + growth, null);
+        for (int cell = cellNumber + 1; cell <= mCounts.length; cell++) {
+            mOffsets[cell] += growth;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.sickmartian.calendarview;
+
+import android.view.View;
+
+import java.util.Arrays;
+
+/**
+ * Bounds of the children laid out in each cell, to find the one under a touch.
+ * Children of a cell are stacked top to bottom, so they have to be added in that order
+ * and a point is resolved with a binary search over the tops.
+ * Arrays are kept between layouts, so re-indexing doesn't allocate once they have grown.
+ */
+class ChildHitIndex {
+
+    private int[][] mTops = new int[0][];
+    private int[][] mBottoms = new int[0][];
+    private View[][] mViews = new View[0][];
+    private int[] mCounts = new int[0];
+
+    void reset(int cellCount) {
+        if (mCounts.length != cellCount) {
+            mTops = Arrays.copyOf(mTops, cellCount);
+            mBottoms = Arrays.copyOf(mBottoms, cellCount);
+            mViews = Arrays.copyOf(mViews, cellCount);
+            mCounts = new int[cellCount];
+        }
+
+        for (int cell = 0; cell < cellCount; cell++) {
+            // Don't keep removed views around
+            if (mViews[cell] != null) {
+                Arrays.fill(mViews[cell], 0, mCounts[cell], null);
+            }
+            mCounts[cell] = 0;
+        }
+    }
+
+    void clearCell(int cellNumber) {
+        if (cellNumber < 0 || cellNumber >= mCounts.length || mViews[cellNumber] == null) return;
+
+        Arrays.fill(mViews[cellNumber], 0, mCounts[cellNumber], null);
+        mCounts[cellNumber] = 0;
+    }
+
+    void add(int cellNumber, int top, int bottom, View view) {
+        if (cellNumber < 0 || cellNumber >= mCounts.length || bottom <= top) return;
+
+        int count = mCounts[cellNumber];
+        if (mViews[cellNumber] == null) {
+            mTops[cellNumber] = new int[4];
+            mBottoms[cellNumber] = new int[4];
+            mViews[cellNumber] = new View[4];
+        } else if (count == mViews[cellNumber].length) {
+            mTops[cellNumber] = Arrays.copyOf(mTops[cellNumber], count * 2);
+            mBottoms[cellNumber] = Arrays.copyOf(mBottoms[cellNumber], count * 2);
+            mViews[cellNumber] = Arrays.copyOf(mViews[cellNumber], count * 2);
+        }
+
+        mTops[cellNumber][count] = top;
+        mBottoms[cellNumber][count] = bottom;
+        mViews[cellNumber][count] = view;
+        mCounts[cellNumber] = count + 1;
+    }
+
+    View find(int cellNumber, float y) {
+        if (cellNumber < 0 || cellNumber >= mCounts.length) return null;
+
+        // Last child starting above y
+        int[] tops = mTops[cellNumber];
+        int low = 0;
+        int high = mCounts[cellNumber];
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (tops[middle] <= y) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        int index = low - 1;
+        if (index < 0 || y >= mBottoms[cellNumber][index]) return null;
+        return mViews[cellNumber][index];
+    }
+
+    /**
+     * Moves every child dy pixels, for children that were offset instead of laid out again
+     */
+    void offset(int dy) {
+        for (int cell = 0; cell < mCounts.length; cell++) {
+            for (int i = 0; i < mCounts[cell]; i++) {
+                mTops[cell][i] += dy;
+                mBottoms[cell][i] += dy;
+            }
+        }
+    }
+
+    /**
+     * Moves the children of every cell distance cells forward, wrapping around
+     */
+    void rotate(int distance) {
+        int cellCount = mCounts.length;
+        if (cellCount == 0) return;
+        distance = ((distance % cellCount) + cellCount) % cellCount;
+        if (distance == 0) return;
+
+        // Three reversals, so nothing is allocated
+        reverse(0, cellCount - 1);
+        reverse(0, distance - 1);
+        reverse(distance, cellCount - 1);
+    }
+
+    private void reverse(int from, int to) {
+        for (; from < to; from++, to--) {
+            int[] tops = mTops[from];
+            mTops[from] = mTops[to];
+            mTops[to] = tops;
+            int[] bottoms = mBottoms[from];
+            mBottoms[from] = mBottoms[to];
+            mBottoms[to] = bottoms;
+            View[] views = mViews[from];
+            mViews[from] = mViews[to];
+            mViews[to] = views;
+            int count = mCounts[from];
+            mCounts[from] = mCounts[to];
+            mCounts[to] = count;
+        }
+    }
+
+    int getCount(int cellNumber) {
+        if (cellNumber < 0 || cellNumber >= mCounts.length) return 0;
+        return mCounts[cellNumber];
+    }
+}
@@ -0,0 +1,102 @@
+package com.sickmartian.calendarview;
+
+import android.view.View;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Content of the pages a view showed before, detached from it but not removed, so going back
+ * to one of them only attaches the children again. They keep their measured sizes, so unless
+ * the cells changed size they are not measured again either.
+ * The least recently shown pages are discarded when there are more views than the budget.
+ */
+class ContentCache {
+
+    interface Owner {
+        /**
+         * Called for every view of a discarded page, it will not be attached again
+         */
+        void onContentDiscarded(View view);
+    }
+
+    private final Owner mOwner;
+    private final int mMaxViews;
+    private final LinkedHashMap<Integer, CellContent> mPages =
+            new LinkedHashMap<>(16, 0.75f, true);
+    private int mViewCount;
+    private final CellContent.Visitor mDiscardContent = new CellContent.Visitor() {
+        @Override
+        public void onView(int cellNumber, int index, View view) {
+            mOwner.onContentDiscarded(view);
+        }
+    };
+
+    ContentCache(Owner owner, int maxViews) {
+        mOwner = owner;
+        mMaxViews = maxViews;
+    }
+
+    int getMaxViews() {
+        return mMaxViews;
+    }
+
+    /**
+     * Keeps the content of a page, its views must be detached already
+     */
+    void put(int key, CellContent content) {
+        CellContent previous = mPages.remove(key);
+        if (previous != null) {
+            mViewCount -= previous.getTotalCount();
+            discard(previous);
+        }
+
+        int viewCount = content.getTotalCount();
+        if (viewCount == 0) return;
+        if (viewCount > mMaxViews) {
+            discard(content);
+            return;
+        }
+
+        mPages.put(key, content);
+        mViewCount += viewCount;
+
+        // Oldest first
+        Iterator<Map.Entry<Integer, CellContent>> iterator = mPages.entrySet().iterator();
+        while (mViewCount > mMaxViews && iterator.hasNext()) {
+            CellContent oldest = iterator.next().getValue();
+            iterator.remove();
+            mViewCount -= oldest.getTotalCount();
+            discard(oldest);
+        }
+    }
+
+    /**
+     * Removes the content of a page from the cache and returns it, if it was kept with the
+     * same number of cells
+     */
+    CellContent take(int key, int cellCount) {
+        CellContent content = mPages.remove(key);
+        if (content == null) return null;
+
+        mViewCount -= content.getTotalCount();
+        if (content.getCellCount() != cellCount) {
+            discard(content);
+            return null;
+        }
+        return content;
+    }
+
+    void clear() {
+        for (CellContent content : mPages.values()) {
+            discard(content);
+        }
+        mPages.clear();
+        mViewCount = 0;
+    }
+
+    private void discard(CellContent content) {
+        content.forEach(mDiscardContent);
+    }
+}
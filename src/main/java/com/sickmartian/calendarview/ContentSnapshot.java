@@ -0,0 +1,75 @@
+package com.sickmartian.calendarview;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+/**
+ * What was in each day of a {@link CalendarView}, as stable ids and view types, so the content
+ * can be bound again right after a restore instead of waiting for it to be loaded.
+ * Days go from the first day key on, the items of day i are the ones between
+ * cellOffsets[i] and cellOffsets[i + 1], all in primitive arrays to keep the parcel small.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class ContentSnapshot implements Parcelable {
+
+    public static final long NO_ID = -1;
+
+    final int mFirstDayKey;
+    final int[] mCellOffsets;
+    final long[] mIds;
+    final int[] mViewTypes;
+
+    ContentSnapshot(int firstDayKey, int[] cellOffsets, long[] ids, int[] viewTypes) {
+        mFirstDayKey = firstDayKey;
+        mCellOffsets = cellOffsets;
+        mIds = ids;
+        mViewTypes = viewTypes;
+    }
+
+    ContentSnapshot(Parcel in) {
+        mFirstDayKey = in.readInt();
+        mCellOffsets = in.createIntArray();
+        mIds = in.createLongArray();
+        mViewTypes = in.createIntArray();
+    }
+
+    public int getFirstDayKey() {
+        return mFirstDayKey;
+    }
+
+    public int getDayCount() {
+        return mCellOffsets.length - 1;
+    }
+
+    public int getItemCount() {
+        return mIds.length;
+    }
+
+    public int getItemCount(int dayIndex) {
+        if (dayIndex < 0 || dayIndex >= getDayCount()) return 0;
+        return mCellOffsets[dayIndex + 1] - mCellOffsets[dayIndex];
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel out, int flags) {
+        out.writeInt(mFirstDayKey);
+        out.writeIntArray(mCellOffsets);
+        out.writeLongArray(mIds);
+        out.writeIntArray(mViewTypes);
+    }
+
+    public static final Creator<ContentSnapshot> CREATOR =
+        new Creator<ContentSnapshot>() {
+            public ContentSnapshot createFromParcel(Parcel in) {
+                return new ContentSnapshot(in);
+            }
+            public ContentSnapshot[] newArray(int size) {
+                return new ContentSnapshot[size];
+            }
+        };
+}
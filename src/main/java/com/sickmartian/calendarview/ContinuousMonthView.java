@@ -0,0 +1,981 @@
+package com.sickmartian.calendarview;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.RectF;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.support.v4.view.ViewCompat;
+import android.util.AttributeSet;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.OverScroller;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Weeks one after the other in a grid that scrolls vertically without end, with the month in
+ * the middle of the view highlighted. Only the visible rows and a buffer around them have cells,
+ * rows that scroll out are reused for the ones coming in, with their content.
+ * Content comes from a {@link DayContentAdapter}, views of the rows going out are recycled
+ * for the ones coming in.
+ */
+public class ContinuousMonthView extends CalendarView implements GestureDetector.OnGestureListener {
+    public static final int DEFAULT_VISIBLE_ROWS = 6;
+    // Rows with cells above and below the visible ones
+    public static final int BUFFER_ROWS = 1;
+    // The visible rows, a partially visible one and the buffer have to fit the selection
+    public static final int MAX_VISIBLE_ROWS = MAX_SELECTABLE_CELLS / DAYS_IN_WEEK - 1 - BUFFER_ROWS * 2;
+    private static final DayNumber[] DAY_NUMBERS = new DayNumber[32];
+
+    static {
+        for (int i = 1; i < DAY_NUMBERS.length; i++) {
+            DAY_NUMBERS[i] = new DayNumber(i);
+        }
+    }
+
+    public interface DayContentAdapter {
+        int getViewCount(int dayKey);
+
+        View getView(int dayKey, int position, View convertView, ViewGroup parent);
+    }
+
+    public interface FocusedMonthListener {
+        /**
+         * @param month 1 based, like {@link DayMetadata#getMonth()}
+         */
+        void onFocusedMonthChanged(ContinuousMonthView view, int year, int month);
+    }
+
+    private static class DayNumber implements DayString {
+        private String dayString;
+
+        public DayNumber(int day) {
+            this.dayString = Integer.toString(day);
+        }
+
+        @Override
+        public String getDayString() {
+            return dayString;
+        }
+    }
+
+    // User set state
+    CellContent mChildInDays;
+    int mCurrentDayKey = DayKey.NONE;
+    int mSelectedDayKey = DayKey.NONE;
+    int mVisibleRows;
+    DayContentAdapter mAdapter;
+    FocusedMonthListener mFocusedMonthListener;
+
+    // Things we calculate and use to draw
+    RectF[] mDayCells;
+    DayNumber[] mDayNumbers;
+    int[] mCellMonths; // year * 12 + month - 1
+    ArrayList<Integer> mCellsWithOverflow;
+    int mAnchorDayKey; // First day of row 0, scroll offsets are relative to it
+    int mFirstRow; // Row of the first cell
+    int mScrollOffset;
+    int mRowHeight;
+    int mGridTop;
+    int mFocusedMonth = INITIAL;
+    int mPendingDayKey = DayKey.NONE; // Shown on the first measure
+    OverScroller mScroller;
+    final ArrayList<View> mScrapViews = new ArrayList<>();
+    // Views bound from the adapter, the only ones that go to scrap
+    final Set<View> mAdapterViews = Collections.newSetFromMap(new IdentityHashMap<View, Boolean>());
+
+    public ContinuousMonthView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        setupGrid(context);
+    }
+
+    public ContinuousMonthView(Context context, CalendarStyle style) {
+        super(context, style);
+        setupGrid(context);
+    }
+
+    private void setupGrid(Context context) {
+        mScroller = new OverScroller(context);
+        setupRows(DEFAULT_VISIBLE_ROWS);
+
+        int today = DayKey.of(Calendar.getInstance());
+        mAnchorDayKey = getFirstDayOfWeek(today);
+        mPendingDayKey = today;
+    }
+
+    private void setupRows(int visibleRows) {
+        mVisibleRows = visibleRows;
+        mDayCells = new RectF[getCellCount()];
+        mDayNumbers = new DayNumber[getCellCount()];
+        mCellMonths = new int[getCellCount()];
+        removeAllContent();
+    }
+
+    private int getRowCount() {
+        return mVisibleRows + 1 + BUFFER_ROWS * 2;
+    }
+
+    private int getFirstDayOfWeek(int dayKey) {
+        int anyDayOfTheWeek = DayKey.getDayOfWeek(dayKey) - Calendar.SUNDAY;
+        return dayKey - (anyDayOfTheWeek + mFirstDayOfTheWeekShift) % DAYS_IN_WEEK;
+    }
+
+    private static int floorDiv(int dividend, int divisor) {
+        int quotient = dividend / divisor;
+        if ((dividend % divisor != 0) && ((dividend < 0) != (divisor < 0))) {
+            quotient--;
+        }
+        return quotient;
+    }
+
+    private void updateDays() {
+        // Only the first day needs the calendar math, the rest is counting
+        int dayKey = getDayKeyForCell(0);
+        int year = DayKey.getYear(dayKey);
+        int month = DayKey.getMonth(dayKey);
+        int day = DayKey.getDay(dayKey);
+        int daysInMonth = DayKey.getDaysInMonth(year, month);
+        for (int i = 0; i < getCellCount(); i++) {
+            mDayNumbers[i] = DAY_NUMBERS[day];
+            mCellMonths[i] = year * 12 + month - 1;
+
+            if (++day > daysInMonth) {
+                day = 1;
+                if (++month > 12) {
+                    month = 1;
+                    year++;
+                }
+                daysInMonth = DayKey.getDaysInMonth(year, month);
+            }
+        }
+    }
+
+    private void positionCells(int w) {
+        float widthStep = (w - mMaterialLeftRightPadding * 2) / (float) DAYS_IN_WEEK;
+        for (int row = 0; row < getRowCount(); row++) {
+            float top = mGridTop + (mFirstRow + row) * mRowHeight - mScrollOffset;
+            for (int col = 0; col < DAYS_IN_WEEK; col++) {
+                // Reuse the cells we already have, this runs on every scroll
+                RectF cell = mDayCells[row * DAYS_IN_WEEK + col];
+                if (cell == null) {
+                    cell = new RectF();
+                    mDayCells[row * DAYS_IN_WEEK + col] = cell;
+                }
+                cell.set(widthStep * col + mMaterialLeftRightPadding, top,
+                        widthStep * (col + 1) + mMaterialLeftRightPadding, top + mRowHeight);
+            }
+        }
+    }
+
+    // Scrolling
+    public int getScrollOffset() {
+        return mScrollOffset;
+    }
+
+    /**
+     * @param scrollOffset Pixels from the top of the week the view started on, or was last
+     *                     moved to with {@link #setFirstDayOfTheWeek(int)}, to the top of the grid
+     */
+    public void setScrollOffset(int scrollOffset) {
+        if (scrollOffset == mScrollOffset) return;
+
+        int dy = scrollOffset - mScrollOffset;
+        mScrollOffset = scrollOffset;
+        if (mRowHeight == 0) return; // Rows are placed on the first measure
+
+        // Children of the rows we keep only move, they are not laid out again
+        for (int i = 0; i < getChildCount(); i++) {
+            getChildAt(i).offsetTopAndBottom(-dy);
+        }
+        mChildHitIndex.offset(-dy);
+        positionCells(getWidth());
+
+        moveToFirstRow(floorDiv(mScrollOffset, mRowHeight) - BUFFER_ROWS);
+        updateFocusedMonth();
+        invalidate();
+    }
+
+    /**
+     * Scrolls so the week of the day is the first one visible
+     */
+    public void scrollToDayKey(int dayKey) {
+        if (dayKey == DayKey.NONE) return;
+
+        mScroller.forceFinished(true);
+        if (mRowHeight == 0) {
+            mPendingDayKey = dayKey;
+            return;
+        }
+        setScrollOffset(floorDiv(dayKey - mAnchorDayKey, DAYS_IN_WEEK) * mRowHeight);
+    }
+
+    public void scrollToDay(DayMetadata day) {
+        if (day != null) {
+            scrollToDayKey(day.toDayKey());
+        }
+    }
+
+    public int getFirstVisibleDayKey() {
+        if (mRowHeight == 0) {
+            return mPendingDayKey == DayKey.NONE ? mAnchorDayKey : getFirstDayOfWeek(mPendingDayKey);
+        }
+        return mAnchorDayKey + floorDiv(mScrollOffset, mRowHeight) * DAYS_IN_WEEK;
+    }
+
+    @Override
+    public void computeScroll() {
+        if (mScroller.computeScrollOffset()) {
+            setScrollOffset(mScroller.getCurrY());
+            ViewCompat.postInvalidateOnAnimation(this);
+        }
+    }
+
+    private void moveToFirstRow(int firstRow) {
+        int shiftedRows = firstRow - mFirstRow;
+        if (shiftedRows == 0) return;
+
+        int rowCount = getRowCount();
+        if (Math.abs(shiftedRows) >= rowCount) {
+            // Nothing in common, like on a fast fling
+            rebindRows(firstRow);
+            for (int row = 0; row < rowCount; row++) {
+                layoutRow(row);
+            }
+            return;
+        }
+
+        // Rows that go out of view wrap around to where the new rows come in, empty them
+        int shiftedCells = shiftedRows * DAYS_IN_WEEK;
+        int firstStaleRow = shiftedRows > 0 ? 0 : rowCount + shiftedRows;
+        for (int row = firstStaleRow; row < firstStaleRow + Math.abs(shiftedRows); row++) {
+            recycleRow(row);
+        }
+        mChildInDays.rotate(-shiftedCells);
+        mChildHitIndex.rotate(-shiftedCells);
+
+        // Cell based state moves along
+        setSelectedCells((shiftedRows > 0 ? mSelectedCells >>> shiftedCells : mSelectedCells << -shiftedCells)
+                & getSelectableCells());
+        for (int i = mCellsWithOverflow.size() - 1; i >= 0; i--) {
+            int cell = mCellsWithOverflow.get(i) - shiftedCells;
+            if (cell < 0 || cell >= getCellCount()) {
+                mCellsWithOverflow.remove(i);
+            } else {
+                mCellsWithOverflow.set(i, cell);
+            }
+        }
+
+        mFirstRow = firstRow;
+        updateDays();
+        positionCells(getWidth());
+
+        int firstNewRow = shiftedRows > 0 ? rowCount - shiftedRows : 0;
+        for (int row = firstNewRow; row < firstNewRow + Math.abs(shiftedRows); row++) {
+            bindRow(row);
+            layoutRow(row);
+        }
+    }
+
+    private void rebindRows(int firstRow) {
+        for (int row = 0; row < getRowCount(); row++) {
+            recycleRow(row);
+        }
+
+        mFirstRow = firstRow;
+        clearSelection();
+        mCellsWithOverflow.clear();
+        updateDays();
+        positionCells(getWidth());
+
+        for (int row = 0; row < getRowCount(); row++) {
+            bindRow(row);
+        }
+    }
+
+    private void bindRow(int row) {
+        if (mAdapter == null) return;
+
+        for (int cell = row * DAYS_IN_WEEK; cell < (row + 1) * DAYS_IN_WEEK; cell++) {
+            int dayKey = getDayKeyForCell(cell);
+            int viewCount = mAdapter.getViewCount(dayKey);
+            for (int position = 0; position < viewCount; position++) {
+                View convertView = mScrapViews.isEmpty() ? null : mScrapViews.remove(mScrapViews.size() - 1);
+                View view = mAdapter.getView(dayKey, position, convertView, this);
+                if (convertView != null && view != convertView) {
+                    mScrapViews.add(convertView);
+                }
+
+                LayoutParams params = view.getLayoutParams();
+                if (params == null) {
+                    params = generateDefaultLayoutParams();
+                }
+                addViewInLayout(view, -1, params, true);
+                mChildInDays.add(cell, view);
+                mAdapterViews.add(view);
+            }
+        }
+    }
+
+    private void recycleRow(int row) {
+        for (int cell = row * DAYS_IN_WEEK; cell < (row + 1) * DAYS_IN_WEEK; cell++) {
+            for (int j = 0; j < mChildInDays.getCount(cell); j++) {
+                View view = mChildInDays.get(cell, j);
+                removeViewInLayout(view);
+                // Views added directly or from a snapshot are not the adapter's to reuse
+                if (mAdapterViews.remove(view)) {
+                    mScrapViews.add(view);
+                }
+            }
+            mChildInDays.clearCell(cell);
+            mChildHitIndex.clearCell(cell);
+        }
+    }
+
+    private void layoutRow(int row) {
+        for (int cell = row * DAYS_IN_WEEK; cell < (row + 1) * DAYS_IN_WEEK; cell++) {
+            measureCell(cell);
+            layoutCell(cell);
+        }
+    }
+
+    private void updateFocusedMonth() {
+        if (mRowHeight == 0) return;
+
+        // Month of the middle of the week in the middle of the view
+        int middleRow = floorDiv(mScrollOffset + (getMeasuredHeight() - mGridTop) / 2, mRowHeight);
+        int dayKey = mAnchorDayKey + middleRow * DAYS_IN_WEEK + DAYS_IN_WEEK / 2;
+        int focusedMonth = DayKey.getYear(dayKey) * 12 + DayKey.getMonth(dayKey) - 1;
+        if (focusedMonth == mFocusedMonth) return;
+
+        mFocusedMonth = focusedMonth;
+        if (mFocusedMonthListener != null) {
+            mFocusedMonthListener.onFocusedMonthChanged(this, getFocusedYear(), getFocusedMonth());
+        }
+    }
+
+    public int getFocusedYear() {
+        return floorDiv(mFocusedMonth, 12);
+    }
+
+    /**
+     * @return 1 based, like {@link DayMetadata#getMonth()}
+     */
+    public int getFocusedMonth() {
+        return mFocusedMonth - getFocusedYear() * 12 + 1;
+    }
+
+    public void setFocusedMonthListener(FocusedMonthListener listener) {
+        mFocusedMonthListener = listener;
+    }
+
+    // Content
+    /**
+     * Views for the days come from the adapter as their rows come into view,
+     * and go back to it as convertViews when they leave
+     */
+    public void setDayContentAdapter(DayContentAdapter adapter) {
+        for (int row = 0; row < getRowCount(); row++) {
+            recycleRow(row);
+        }
+        mAdapter = adapter;
+        mScrapViews.clear();
+        notifyDayContentChanged();
+    }
+
+    /**
+     * The adapter has other views for the days, the rows are bound again
+     */
+    public void notifyDayContentChanged() {
+        for (int row = 0; row < getRowCount(); row++) {
+            recycleRow(row);
+        }
+        if (mRowHeight == 0) return; // Bound on the first measure
+
+        mCellsWithOverflow.clear();
+        for (int row = 0; row < getRowCount(); row++) {
+            bindRow(row);
+        }
+        requestLayout();
+        invalidate();
+    }
+
+    public void setVisibleRows(int visibleRows) {
+        visibleRows = Math.max(1, Math.min(visibleRows, MAX_VISIBLE_ROWS));
+        if (visibleRows == mVisibleRows) return;
+
+        int firstVisibleDayKey = getFirstVisibleDayKey();
+        for (int row = 0; row < getRowCount(); row++) {
+            recycleRow(row);
+        }
+        clearSelection();
+        setupRows(visibleRows);
+
+        // Placed again on measure
+        mRowHeight = 0;
+        mPendingDayKey = firstVisibleDayKey;
+        requestLayout();
+    }
+
+    public int getVisibleRows() {
+        return mVisibleRows;
+    }
+
+    // Convenience methods to interact
+    /**
+     * Content added directly to a cell is removed when its row scrolls out of view,
+     * use a {@link DayContentAdapter} for content that has to come back
+     */
+    public void removeAllContent() {
+        removeAllViews();
+        // Null when called from the super constructor
+        if (mAdapterViews != null) mAdapterViews.clear();
+
+        mCellsWithOverflow = new ArrayList<>();
+        // Kept while the cell count stays the same, so loading again doesn't allocate
+        if (mChildInDays == null || mChildInDays.getCellCount() != getCellCount()) {
+            mChildInDays = new CellContent(getCellCount());
+        } else {
+            mChildInDays.clear();
+        }
+    }
+
+    public void addViewToCell(int cellNumber, View viewToAppend) {
+        if (cellNumber < 0 || cellNumber >= getCellCount()) return;
+
+        addView(viewToAppend);
+
+        mChildInDays.add(cellNumber, viewToAppend);
+
+        invalidate();
+    }
+
+    @Override
+    public void addViewToDay(DayMetadata dayMetadata, View viewToAppend) {
+        if (dayMetadata == null) return;
+
+        addViewToDayKey(dayMetadata.toDayKey(), viewToAppend);
+    }
+
+    public void setCurrentDay(Calendar currentDay) {
+        setCurrentDayKey(currentDay == null ? DayKey.NONE : DayKey.of(currentDay));
+    }
+
+    public void setCurrentDay(DayMetadata currentDay) {
+        setCurrentDayKey(currentDay == null ? DayKey.NONE : currentDay.toDayKey());
+    }
+
+    public void setCurrentDayKey(int dayKey) {
+        // Kept as a day, it can scroll into view later
+        if (dayKey != mCurrentDayKey) {
+            mCurrentDayKey = dayKey;
+            invalidate();
+        }
+    }
+
+    public void setSelectedDay(Calendar selectedDay) {
+        setSelectedDayKey(selectedDay == null ? DayKey.NONE : DayKey.of(selectedDay));
+    }
+
+    public void setSelectedDay(DayMetadata selectedDay) {
+        setSelectedDayKey(selectedDay == null ? DayKey.NONE : selectedDay.toDayKey());
+    }
+
+    public void setSelectedDayKey(int dayKey) {
+        if (dayKey != mSelectedDayKey) {
+            mSelectedDayKey = dayKey;
+            invalidate();
+        }
+    }
+
+    public DayMetadata getSelectedDay() {
+        if (mSelectedDayKey == DayKey.NONE) {
+            return null;
+        }
+        return DayMetadata.fromDayKey(mSelectedDayKey);
+    }
+
+    public int getSelectedDayKey() {
+        return mSelectedDayKey;
+    }
+
+    public int getSelectedCell() {
+        return getCellForDayKey(mSelectedDayKey);
+    }
+
+    public void setFirstDayOfTheWeek(int firstDayOfTheWeekShift) {
+        if (mFirstDayOfTheWeekShift != firstDayOfTheWeekShift) {
+            int firstVisibleDayKey = getFirstVisibleDayKey();
+            mFirstDayOfTheWeekShift = firstDayOfTheWeekShift;
+            clearSelection(); // Cells will show other days
+
+            // Apply changes
+            mWeekDays = getCachedWeekdaysForShift(mFirstDayOfTheWeekShift); // Reset weekday names
+            for (int row = 0; row < getRowCount(); row++) {
+                recycleRow(row);
+            }
+            mAnchorDayKey = getFirstDayOfWeek(firstVisibleDayKey);
+            mScrollOffset = 0;
+            mFirstRow = 0;
+
+            // Placed again on measure
+            mRowHeight = 0;
+            mPendingDayKey = firstVisibleDayKey;
+            requestLayout();
+            invalidate();
+        }
+    }
+
+    public ArrayList<View> getDayContent(DayMetadata day) {
+        if (day != null) {
+            return getDayKeyContent(day.toDayKey());
+        }
+        return null;
+    }
+
+    public void setDayContent(DayMetadata day, ArrayList<View> newContent) {
+        if (day != null) {
+            setDayKeyContent(day.toDayKey(), newContent);
+        }
+    }
+
+    public ArrayList<View> getCellContent(int cellNumber) {
+        if (cellNumber < 0 || cellNumber >= getCellCount()) return null;
+        return mChildInDays.toList(cellNumber);
+    }
+
+    public int getCellContentCount(int cellNumber) {
+        if (cellNumber < 0 || cellNumber >= getCellCount()) return 0;
+        return mChildInDays.getCount(cellNumber);
+    }
+
+    public View getCellContentAt(int cellNumber, int index) {
+        if (index < 0 || index >= getCellContentCount(cellNumber)) return null;
+        return mChildInDays.get(cellNumber, index);
+    }
+
+    /**
+     * Goes through the content of a cell without copying it
+     */
+    public void forEachInCell(int cellNumber, CellContent.Visitor visitor) {
+        if (cellNumber < 0 || cellNumber >= getCellCount()) return;
+        mChildInDays.forEachInCell(cellNumber, visitor);
+    }
+
+    public void setCellContent(int cellNumber, ArrayList<View> newContent) {
+        if (cellNumber < 0 || cellNumber >= getCellCount()) return;
+
+        // Add new views and remove discarded views
+        for (View newView : newContent) {
+            if (!mChildInDays.contains(cellNumber, newView)) {
+                addView(newView);
+            }
+        }
+        for (int i = 0; i < mChildInDays.getCount(cellNumber); i++) {
+            View oldView = mChildInDays.get(cellNumber, i);
+            if (!(newContent.contains(oldView))) {
+                removeView(oldView);
+            }
+        }
+
+        // Set new content
+        mChildInDays.set(cellNumber, newContent);
+        requestLayout();
+    }
+
+    public int getCellCount() {
+        return getRowCount() * DAYS_IN_WEEK;
+    }
+
+    @Override
+    protected RectF[] getDayCells() {
+        return mDayCells;
+    }
+
+    public int getDayKeyForCell(int cellNumber) {
+        if (cellNumber < 0 || cellNumber >= getCellCount()) return DayKey.NONE;
+
+        return mAnchorDayKey + mFirstRow * DAYS_IN_WEEK + cellNumber;
+    }
+
+    @Override
+    protected boolean isWeekdayShownInCell(int cellNumber) {
+        // Weekdays stay on top, out of the rows
+        return false;
+    }
+
+    @Override
+    protected String getRenderCacheKey() {
+        // Frames depend on the scroll, they can't be reused
+        return null;
+    }
+
+    // View methods
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+
+        // We have a fixed size, we can omit some child views if they don't fit later
+        int w = resolveSizeAndState((int) (
+                        (mSingleLetterWidth + mBetweenSiblingsPadding) // Single column min size
+                                * 2 // For chars in days of the month
+                                * DAYS_IN_WEEK),
+                widthMeasureSpec, 0);
+        int h = resolveSizeAndState((int) ((mBetweenSiblingsPadding * 4 + mSingleLetterHeight) * DAYS_IN_WEEK), heightMeasureSpec, 0);
+
+        setMeasuredDimension(w, h);
+
+        mGridTop = (int) (getFirstRowExtraHeight() + mBetweenSiblingsPadding);
+        int rowHeight = Math.max(1, (h - mGridTop) / mVisibleRows);
+        if (rowHeight != mRowHeight) {
+            // Keep the same week on top
+            int firstVisibleDayKey = getFirstVisibleDayKey();
+            mRowHeight = rowHeight;
+            mPendingDayKey = DayKey.NONE;
+            mScrollOffset = floorDiv(firstVisibleDayKey - mAnchorDayKey, DAYS_IN_WEEK) * mRowHeight;
+            mScroller.forceFinished(true);
+            rebindRows(floorDiv(mScrollOffset, mRowHeight) - BUFFER_ROWS);
+            updateFocusedMonth();
+        }
+        positionCells(w);
+
+        for (int i = 0; i < getCellCount(); i++) {
+            measureCell(i);
+        }
+    }
+
+    @Override
+    protected void measureCell(int cellNumber) {
+        float alreadyUsedTop = mEndOfHeaderWithoutWeekday;
+        for (int j = 0; j < mChildInDays.getCount(cellNumber); j++) {
+            View viewToPlace = mChildInDays.get(cellNumber, j);
+            if (viewToPlace.getVisibility() != GONE) {
+                int wSpec = MeasureSpec.makeMeasureSpec(Math.round(mDayCells[cellNumber].width()), MeasureSpec.EXACTLY);
+                int hSpec = MeasureSpec.makeMeasureSpec(Math.round(mDayCells[cellNumber].height() - alreadyUsedTop), MeasureSpec.AT_MOST);
+                viewToPlace.measure(wSpec, hSpec);
+            }
+        }
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        super.onLayout(changed, l, t, r, b);
+
+        mCellsWithOverflow.clear();
+        mChildHitIndex.reset(getCellCount());
+        for (int i = 0; i < getCellCount(); i++) {
+            layoutCell(i);
+        }
+    }
+
+    @Override
+    protected void layoutCell(int cellNumber) {
+        mChildHitIndex.clearCell(cellNumber);
+        mCellsWithOverflow.remove(Integer.valueOf(cellNumber));
+
+        float topOffset = mEndOfHeaderWithoutWeekday;
+        int cellBottom = (int) (mDayCells[cellNumber].bottom - mOverflowHeight);
+        for (int j = 0; j < mChildInDays.getCount(cellNumber); j++) {
+            View viewToPlace = mChildInDays.get(cellNumber, j);
+            if (viewToPlace.getVisibility() != GONE) {
+
+                // If we overflow the cell, crop the view
+                int proposedItemBottom = (int) (mDayCells[cellNumber].top + topOffset + viewToPlace.getMeasuredHeight());
+                if (proposedItemBottom >= cellBottom) {
+                    proposedItemBottom = cellBottom;
+                } else if (viewToPlace.getVisibility() == VISIBLE) {
+                    // Only whole views can be tapped
+                    mChildHitIndex.add(cellNumber, (int) (mDayCells[cellNumber].top + topOffset), proposedItemBottom, viewToPlace);
+                }
+
+                viewToPlace.layout(
+                        (int) mDayCells[cellNumber].left,
+                        (int) (mDayCells[cellNumber].top + topOffset),
+                        (int) mDayCells[cellNumber].right,
+                        proposedItemBottom
+                );
+
+                topOffset += viewToPlace.getMeasuredHeight();
+
+                // If we don't have more space below, stop drawing them
+                if (proposedItemBottom == cellBottom) {
+                    mCellsWithOverflow.add(cellNumber);
+                    break;
+                }
+            }
+        }
+    }
+
+    @Override
+    protected boolean moveChildBetweenCells(View child, int fromCell, int toCell) {
+        if (fromCell < 0 || fromCell >= getCellCount() || toCell < 0 || toCell >= getCellCount()) return false;
+        if (!mChildInDays.remove(fromCell, child)) return false;
+
+        mChildInDays.add(toCell, child);
+        return true;
+    }
+
+    @Override
+    protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+        // Rows can't go over the weekdays when scrolled
+        int saveCount = canvas.save();
+        canvas.clipRect(0, mGridTop, getWidth(), getHeight());
+        boolean result = super.drawChild(canvas, child, drawingTime);
+        canvas.restoreToCount(saveCount);
+        return result;
+    }
+
+    @Override
+    protected void drawCalendar(CalendarRenderer renderer) {
+        renderer.drawPaint(mInactiveBackgroundColor);
+
+        // Everything but the weekdays scrolls
+        int saveCount = renderer.save();
+        renderer.clipRect(0, mGridTop, getWidth(), getHeight());
+
+        // Days of the focused month, they are contiguous so it's one block per row
+        for (int row = 0; row < getRowCount(); row++) {
+            int firstCell = INITIAL;
+            int lastCell = INITIAL;
+            for (int i = row * DAYS_IN_WEEK; i < (row + 1) * DAYS_IN_WEEK; i++) {
+                if (mCellMonths[i] == mFocusedMonth) {
+                    if (firstCell == INITIAL) firstCell = i;
+                    lastCell = i;
+                }
+            }
+            if (firstCell == INITIAL) continue;
+
+            boolean startsRow = firstCell == row * DAYS_IN_WEEK;
+            boolean endsRow = lastCell == (row + 1) * DAYS_IN_WEEK - 1;
+            float left = mDayCells[firstCell].left;
+            float top = mDayCells[firstCell].top;
+            float right = mDayCells[lastCell].right;
+            float bottom = mDayCells[lastCell].bottom;
+            if (startsRow && endsRow) {
+                drawBlock(renderer, mActiveBackgroundColor, BLOCK.COMPLETE, left, top, right, bottom);
+            } else if (startsRow) {
+                drawBlock(renderer, mActiveBackgroundColor, BLOCK.LEFT, left, top, right, bottom);
+            } else if (endsRow) {
+                drawBlock(renderer, mActiveBackgroundColor, BLOCK.RIGHT, left, top, right, bottom);
+            } else {
+                renderer.drawRect(left, top, right, bottom, mActiveBackgroundColor);
+            }
+        }
+        drawSelectedCell(renderer, mDayCells, getSelectedCell());
+        drawSelectedCells(renderer, mDayCells, mSelectedCells);
+        drawDropTarget(renderer, mDayCells);
+
+        // Day numbers, only for the rows in view
+        int currentCell = getCellForDayKey(mCurrentDayKey);
+        for (int i = 0; i < getCellCount(); i++) {
+            if (mDayCells[i].bottom <= mGridTop || mDayCells[i].top >= getHeight()) continue;
+
+            if (mCellMonths[i] != mFocusedMonth) {
+                drawDayTextsInCell(renderer, i, mDayCells, mInactiveTextColor, mInactiveTextColor, mDayNumbers);
+            } else if (currentCell == i && mCurrentDayDrawable != null) {
+                // Decoration
+                float topOffset = mBetweenSiblingsPadding;
+                renderer.drawDrawable(mCurrentDayDrawable,
+                        (int) (mDayCells[i].left + mBetweenSiblingsPadding),
+                        (int) (mDayCells[i].top + topOffset),
+                        (int) (mDayCells[i].left + mBetweenSiblingsPadding + mDecorationSize),
+                        (int) (mDayCells[i].top + mDecorationSize + topOffset));
+
+                drawDayTextsInCell(renderer, i, mDayCells, mCurrentDayTextColor, mActiveTextColor, mDayNumbers);
+            } else {
+                drawDayTextsInCell(renderer, i, mDayCells, mActiveTextColor, mActiveTextColor, mDayNumbers);
+            }
+        }
+
+        drawOverflow(renderer, mCellsWithOverflow, mDayCells);
+        drawMarkers(renderer, mDayCells);
+
+        // Separation lines, all in one batch
+        int count = 0;
+        for (int row = 0; row < getRowCount(); row++) {
+            float top = mDayCells[row * DAYS_IN_WEEK].top;
+            if (top <= mGridTop || top >= getHeight()) continue;
+
+            mSeparatorLines[count++] = 0;
+            mSeparatorLines[count++] = top;
+            mSeparatorLines[count++] = getWidth();
+            mSeparatorLines[count++] = top;
+        }
+        count = addVerticalSeparation(mSeparatorLines, count, mDayCells);
+        if (count > 0) {
+            renderer.drawLines(mSeparatorLines, count, mSeparationPaint);
+        }
+        renderer.restoreToCount(saveCount);
+
+        // Weekdays
+        renderer.drawRect(0, 0, getWidth(), mGridTop, mActiveBackgroundColor);
+        mActiveTextColor.getTextBounds("S", 0, 1, mReusableTextBound);
+        int decorationLeftOffset = 0;
+        if (mDecorationSize > 0) {
+            decorationLeftOffset = (int) ((mDecorationSize - mReusableTextBound.width()) / 2);
+        }
+        for (int col = 0; col < DAYS_IN_WEEK; col++) {
+            renderer.drawText(mWeekDays[col],
+                    mDayCells[col].left + mBetweenSiblingsPadding + decorationLeftOffset,
+                    mBetweenSiblingsPadding + mReusableTextBound.height(),
+                    mActiveTextColor);
+        }
+        renderer.drawLine(0, mGridTop, getWidth(), mGridTop, mSeparationPaint);
+    }
+
+    // Interaction
+    @Override
+    public boolean onInterceptTouchEvent(MotionEvent ev) {
+        return true;
+    }
+
+    @Override
+    public boolean onDown(MotionEvent e) {
+        mScroller.forceFinished(true);
+        startRangeSelection(e);
+        return true;
+    }
+
+    @Override
+    public int getCellNumberFromLocation(float x, float y) {
+        // Rows scrolled under the weekdays can't be touched
+        if (y < mGridTop) return INITIAL;
+
+        return super.getCellNumberFromLocation(x, y);
+    }
+
+    public DayMetadata getCellFromLocation(float x, float y) {
+        int cell = getCellNumberFromLocation(x, y);
+        if (cell != INITIAL) {
+            return getDayMetadataForCell(cell);
+        }
+        return null;
+    }
+
+    @Override
+    public boolean onSingleTapUp(MotionEvent e) {
+        if (notifyChildTapped(e.getX(), e.getY())) return true;
+
+        toggleMultipleSelection(e);
+
+        int cell = getCellNumberFromLocation(e.getX(), e.getY());
+        if (cell != INITIAL) {
+            return notifyTapEnded(cell);
+        }
+        return false;
+    }
+
+    @Override
+    public void onLongPress(MotionEvent e) {
+        if (startChildDrag(e)) return;
+
+        int cell = getCellNumberFromLocation(e.getX(), e.getY());
+        if (cell != INITIAL) {
+            notifyLongClick(cell);
+        }
+    }
+
+    @Override
+    public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
+        if (extendRangeSelection(e2)) return true;
+
+        setScrollOffset((int) (mScrollOffset + distanceY));
+        return true;
+    }
+
+    @Override
+    public void onShowPress(MotionEvent e) {
+
+    }
+
+    @Override
+    public boolean onFling(MotionEvent e1, MotionEvent e2, float velocityX, float velocityY) {
+        if (mSelectionMode == SELECTION_RANGE) return false;
+
+        // No end, but far enough from overflowing
+        mScroller.fling(0, mScrollOffset, 0, (int) -velocityY, 0, 0,
+                Integer.MIN_VALUE / 2, Integer.MAX_VALUE / 2);
+        ViewCompat.postInvalidateOnAnimation(this);
+        return true;
+    }
+
+    // Persistence
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        Parcelable superState = super.onSaveInstanceState();
+        MyOwnState myOwnState = new MyOwnState(superState);
+        myOwnState.mFirstVisibleDayKey = getFirstVisibleDayKey();
+        myOwnState.mVisibleRows = mVisibleRows;
+        myOwnState.mCurrentDayKey = mCurrentDayKey;
+        myOwnState.mSelectedDayKey = mSelectedDayKey;
+        return myOwnState;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof MyOwnState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+
+        MyOwnState myOwnState = (MyOwnState) state;
+        super.onRestoreInstanceState(myOwnState.getSuperState());
+
+        setVisibleRows(myOwnState.mVisibleRows);
+        mCurrentDayKey = myOwnState.mCurrentDayKey;
+        mSelectedDayKey = myOwnState.mSelectedDayKey;
+        scrollToDayKey(myOwnState.mFirstVisibleDayKey);
+    }
+
+    private static class MyOwnState extends BaseSavedState {
+        int mFirstVisibleDayKey;
+        int mVisibleRows;
+        int mCurrentDayKey;
+        int mSelectedDayKey;
+
+        MyOwnState(Parcelable superState) {
+            super(superState);
+        }
+
+        MyOwnState(Parcel in) {
+            super(in);
+            mFirstVisibleDayKey = in.readInt();
+            mVisibleRows = in.readInt();
+            mCurrentDayKey = in.readInt();
+            mSelectedDayKey = in.readInt();
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeInt(mFirstVisibleDayKey);
+            out.writeInt(mVisibleRows);
+            out.writeInt(mCurrentDayKey);
+            out.writeInt(mSelectedDayKey);
+        }
+
+        public static final Creator<MyOwnState> CREATOR =
+            new Creator<ContinuousMonthView.MyOwnState>() {
+                public ContinuousMonthView.MyOwnState createFromParcel(Parcel in) {
+                    return new ContinuousMonthView.MyOwnState(in);
+                }
+                public ContinuousMonthView.MyOwnState[] newArray(int size) {
+                    return new ContinuousMonthView.MyOwnState[size];
+                }
+            };
+    }
+
+    // Other
+    @Override
+    public String toString() {
+        int firstVisibleDayKey = getFirstVisibleDayKey();
+        return DayKey.getYear(firstVisibleDayKey) + "-" + DayKey.getMonth(firstVisibleDayKey) + "-" +
+                DayKey.getDay(firstVisibleDayKey) + "+" + mVisibleRows + "w";
+    }
+}
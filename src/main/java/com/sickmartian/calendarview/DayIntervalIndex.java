@@ -0,0 +1,160 @@
+package com.sickmartian.calendarview;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+
+/**
+ * Index of items spanning ranges of days (inclusive, as {@link DayKey}s), answering which items
+ * overlap a given range of days in O(log n + k).
+ * The items are kept sorted by first day in primitive arrays and treated as an implicit balanced
+ * tree where every node knows the furthest last day of its subtree, so whole subtrees that end
+ * before the requested range are skipped.
+ * Adding items invalidates the index, it gets rebuilt on the next query, so add them in batches.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class DayIntervalIndex<T> {
+
+    public interface Visitor<T> {
+        void onInterval(T item, int firstDayKey, int lastDayKey);
+    }
+
+    public interface CellVisitor<T> {
+        void onCell(int cellNumber, T item);
+    }
+
+    private static class Interval<T> {
+        final int firstDayKey;
+        final int lastDayKey;
+        final T item;
+
+        Interval(int firstDayKey, int lastDayKey, T item) {
+            this.firstDayKey = firstDayKey;
+            this.lastDayKey = lastDayKey;
+            this.item = item;
+        }
+    }
+
+    private static final Comparator<Interval> BY_FIRST_DAY = new Comparator<Interval>() {
+        @Override
+        public int compare(Interval lhs, Interval rhs) {
+            return lhs.firstDayKey < rhs.firstDayKey ? -1 :
+                    (lhs.firstDayKey == rhs.firstDayKey ? 0 : 1);
+        }
+    };
+
+    private final ArrayList<Interval<T>> mIntervals = new ArrayList<>();
+    private boolean mDirty;
+
+    // Built index, sorted by first day
+    private int[] mFirstDays = new int[0];
+    private int[] mLastDays = new int[0];
+    private int[] mMaxLastDays = new int[0];
+    private Object[] mItems = new Object[0];
+
+    public void add(int firstDayKey, int lastDayKey, T item) {
+        if (lastDayKey < firstDayKey) return;
+
+        mIntervals.add(new Interval<>(firstDayKey, lastDayKey, item));
+        mDirty = true;
+    }
+
+    public void clear() {
+        mIntervals.clear();
+        mDirty = true;
+    }
+
+    public int size() {
+        return mIntervals.size();
+    }
+
+    /**
+     * Visits every item overlapping firstDayKey..lastDayKey (inclusive), ordered by first day
+     */
+    public void query(int firstDayKey, int lastDayKey, Visitor<T> visitor) {
+        if (visitor == null || lastDayKey < firstDayKey) return;
+
+        buildIfNeeded();
+        search(0, mItems.length, firstDayKey, lastDayKey, visitor, null);
+    }
+
+    /**
+     * Visits every item overlapping the cellCount days of a grid starting on firstDayKeyOfGrid,
+     * once for every cell it covers. Items are visited in a single pass ordered by first day,
+     * so the items of each cell arrive in that order too.
+     */
+    public void assignToCells(int firstDayKeyOfGrid, int cellCount, CellVisitor<T> visitor) {
+        if (visitor == null || cellCount <= 0) return;
+
+        buildIfNeeded();
+        search(0, mItems.length, firstDayKeyOfGrid, firstDayKeyOfGrid + cellCount - 1,
+                null, visitor);
+    }
+
+    public void assignToCells(CalendarView calendarView, CellVisitor<T> visitor) {
+        assignToCells(calendarView.getDayKeyForCell(0), calendarView.getCellCount(), visitor);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void search(int from, int to, int firstDayKey, int lastDayKey,
+                        Visitor<T> visitor, CellVisitor<T> cellVisitor) {
+        if (from >= to) return;
+
+        int middle = (from + to) >>> 1;
+        // Nothing in this subtree reaches the range
+        if (mMaxLastDays[middle] < firstDayKey) return;
+
+        search(from, middle, firstDayKey, lastDayKey, visitor, cellVisitor);
+
+        // Everything from here on starts after the range
+        if (mFirstDays[middle] > lastDayKey) return;
+
+        if (mLastDays[middle] >= firstDayKey) {
+            T item = (T) mItems[middle];
+            if (visitor != null) {
+                visitor.onInterval(item, mFirstDays[middle], mLastDays[middle]);
+            } else {
+                int firstCell = Math.max(mFirstDays[middle], firstDayKey) - firstDayKey;
+                int lastCell = Math.min(mLastDays[middle], lastDayKey) - firstDayKey;
+                for (int cell = firstCell; cell <= lastCell; cell++) {
+                    cellVisitor.onCell(cell, item);
+                }
+            }
+        }
+
+        search(middle + 1, to, firstDayKey, lastDayKey, visitor, cellVisitor);
+    }
+
+    private void buildIfNeeded() {
+        if (!mDirty) return;
+
+        Collections.sort(mIntervals, BY_FIRST_DAY);
+
+        int size = mIntervals.size();
+        if (mItems.length != size) {
+            mFirstDays = new int[size];
+            mLastDays = new int[size];
+            mMaxLastDays = new int[size];
+            mItems = new Object[size];
+        }
+        for (int i = 0; i < size; i++) {
+            Interval<T> interval = mIntervals.get(i);
+            mFirstDays[i] = interval.firstDayKey;
+            mLastDays[i] = interval.lastDayKey;
+            mItems[i] = interval.item;
+        }
+        buildMaxLastDays(0, size);
+
+        mDirty = false;
+    }
+
+    private int buildMaxLastDays(int from, int to) {
+        if (from >= to) return Integer.MIN_VALUE;
+
+        int middle = (from + to) >>> 1;
+        int max = Math.max(mLastDays[middle],
+                Math.max(buildMaxLastDays(from, middle), buildMaxLastDays(middle + 1, to)));
+        mMaxLastDays[middle] = max;
+        return max;
+    }
+}
@@ -0,0 +1,86 @@
+package com.sickmartian.calendarview;
+
+import java.util.Calendar;
+
+/**
+ * Days represented as a plain int: the number of days since 1970-01-01 (epoch day).
+ * Everything here is arithmetic, no {@link Calendar} instances are created.
+ * Months are 1 based, like in {@link CalendarView.DayMetadata}.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class DayKey {
+    public static final int NONE = Integer.MIN_VALUE;
+
+    private DayKey() {
+    }
+
+    public static int of(int year, int month, int day) {
+        // Days from civil, shifting the year so it begins on March
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    public static int of(Calendar calendar) {
+        return of(calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH) + 1,
+                calendar.get(Calendar.DATE));
+    }
+
+    public static int of(CalendarView.DayMetadata dayMetadata) {
+        return of(dayMetadata.getYear(), dayMetadata.getMonth(), dayMetadata.getDay());
+    }
+
+    public static int getYear(int dayKey) {
+        int dayOfEra = getDayOfEra(dayKey);
+        int yearOfEra = getYearOfEra(dayOfEra);
+        int year = yearOfEra + getEra(dayKey) * 400;
+        return getMonth(dayKey) <= 2 ? year + 1 : year;
+    }
+
+    public static int getMonth(int dayKey) {
+        int dayOfEra = getDayOfEra(dayKey);
+        int yearOfEra = getYearOfEra(dayOfEra);
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        return shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+    }
+
+    public static int getDay(int dayKey) {
+        int dayOfEra = getDayOfEra(dayKey);
+        int yearOfEra = getYearOfEra(dayOfEra);
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        return dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+    }
+
+    /**
+     * @return The day of the week using the {@link Calendar} constants (SUNDAY is 1)
+     */
+    public static int getDayOfWeek(int dayKey) {
+        // 1970-01-01 was a Thursday
+        return ((dayKey + 4) % 7 + 7) % 7 + Calendar.SUNDAY;
+    }
+
+    public static int getDaysInMonth(int year, int month) {
+        if (month == 12) {
+            return of(year + 1, 1, 1) - of(year, month, 1);
+        }
+        return of(year, month + 1, 1) - of(year, month, 1);
+    }
+
+    private static int getEra(int dayKey) {
+        int shifted = dayKey + 719468;
+        return (shifted >= 0 ? shifted : shifted - 146096) / 146097;
+    }
+
+    private static int getDayOfEra(int dayKey) {
+        return dayKey + 719468 - getEra(dayKey) * 146097;
+    }
+
+    private static int getYearOfEra(int dayOfEra) {
+        return (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+    }
+}
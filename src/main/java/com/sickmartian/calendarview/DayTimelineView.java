@@ -0,0 +1,1003 @@
+package com.sickmartian.calendarview;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.RectF;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.support.v4.view.ViewCompat;
+import android.util.AttributeSet;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.OverScroller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Comparator;
+
+/**
+ * Hour based view of one or more days. Days are columns with the same geometry as the ones of
+ * {@link WeekView}, with an all-day lane on top that works like its cells, and a vertically
+ * scrolling grid of hours below where timed events are placed.
+ * Timed events come from a {@link TimedEventAdapter} and only the ones inside the visible hours
+ * get views, which are recycled as they scroll out. Overlapping events are placed side by side.
+ */
+public class DayTimelineView extends CalendarView implements GestureDetector.OnGestureListener {
+    public static final int MAX_DAYS = DAYS_IN_WEEK;
+    public static final int MINUTES_IN_DAY = 24 * 60;
+    private static final int MINUTES_IN_HOUR = 60;
+    private static final String[] HOUR_LABELS = new String[24];
+
+    static {
+        for (int i = 0; i < HOUR_LABELS.length; i++) {
+            HOUR_LABELS[i] = Integer.toString(i);
+        }
+    }
+
+    public interface TimedEventAdapter {
+        int getEventCount();
+
+        int getDayKey(int position);
+
+        /**
+         * @return Minutes since the beginning of the day
+         */
+        int getStartMinute(int position);
+
+        /**
+         * @return Minutes since the beginning of the day
+         */
+        int getEndMinute(int position);
+
+        View getView(int position, View convertView, ViewGroup parent);
+    }
+
+    // User set state
+    CellContent mChildInDays;
+    int mCurrentCell = INITIAL;
+    int mSelectedCell = INITIAL;
+    DayMetadata mDay;
+    int mDayCount;
+    float mHourHeight;
+    float mAllDayLaneHeight;
+    TimedEventAdapter mAdapter;
+
+    // Things we calculate and use to draw
+    RectF[] mDayCells;
+    DayMetadata[] mDayMetadata;
+    int mFirstDayKey;
+    ArrayList<Integer> mCellsWithOverflow;
+    float mGridTop;
+    int mScrollOffset;
+    OverScroller mScroller;
+
+    // Timed events sorted by day and start, with the columns they are packed into
+    int mEventCount;
+    int[] mEventPositions = new int[0];
+    int[] mEventStarts = new int[0];
+    int[] mEventEnds = new int[0];
+    int[] mEventMaxEnds = new int[0]; // Furthest end so far on the day
+    int[] mEventColumns = new int[0];
+    int[] mEventColumnCounts = new int[0];
+    View[] mEventViews = new View[0];
+    int[] mFirstEventOfCell = new int[MAX_DAYS + 1];
+    int[] mColumnEnds = new int[4];
+
+    // Events with a view right now
+    int[] mMaterializedEvents = new int[8];
+    int mMaterializedCount;
+    final ArrayList<View> mScrapViews = new ArrayList<>();
+
+    public DayTimelineView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        setupGrid(context, 1);
+    }
+
+    public DayTimelineView(Context context, CalendarStyle style) {
+        super(context, style);
+        setupGrid(context, 1);
+    }
+
+    private void setupGrid(Context context, int dayCount) {
+        mDayCount = dayCount;
+        mDayCells = new RectF[dayCount];
+        mDayMetadata = new DayMetadata[dayCount];
+        mHourHeight = dp4 * 12;
+        mAllDayLaneHeight = dp4 * 6;
+        mScroller = new OverScroller(context);
+        removeAllContent();
+    }
+
+    private void setDateInternal(DayMetadata dayMetadata) {
+        mDay = dayMetadata;
+
+        sharedSetDate();
+    }
+
+    private void sharedSetDate() {
+        int firstDayKey = mDay.toDayKey();
+        if (mDayCount == DAYS_IN_WEEK) {
+            // Whole weeks line up with the ones of WeekView
+            int anyDayOfTheWeek = DayKey.getDayOfWeek(firstDayKey) - Calendar.SUNDAY;
+            firstDayKey -= (anyDayOfTheWeek + mFirstDayOfTheWeekShift) % DAYS_IN_WEEK;
+        }
+        mFirstDayKey = firstDayKey;
+
+        // Weekdays for the days we actually show, they might not start on the first day of the week
+        String[] weekdaysFromSunday = getCachedWeekdaysForShift(SUNDAY_SHIFT);
+        mWeekDays = new String[mDayCount];
+        for (int i = 0; i < mDayCount; i++) {
+            mDayMetadata[i] = DayMetadata.fromDayKey(mFirstDayKey + i);
+            mWeekDays[i] = weekdaysFromSunday[DayKey.getDayOfWeek(mFirstDayKey + i) - Calendar.SUNDAY];
+        }
+
+        invalidate();
+    }
+
+    // Convenience methods to interact
+    public void removeAllContent() {
+        removeAllViews();
+
+        mCellsWithOverflow = new ArrayList<>();
+        // Kept while the cell count stays the same, so loading again doesn't allocate
+        if (mChildInDays == null || mChildInDays.getCellCount() != getCellCount()) {
+            mChildInDays = new CellContent(getCellCount());
+        } else {
+            mChildInDays.clear();
+        }
+
+        // Timed events got removed too, they will be placed again on the next layout
+        if (mEventViews != null) {
+            for (int i = 0; i < mMaterializedCount; i++) {
+                int event = mMaterializedEvents[i];
+                mScrapViews.add(mEventViews[event]);
+                mEventViews[event] = null;
+            }
+            mMaterializedCount = 0;
+        }
+    }
+
+    public void addViewToCell(int cellNumber, View viewToAppend) {
+        if (cellNumber < 0 || cellNumber >= getCellCount()) return;
+
+        addView(viewToAppend);
+
+        mChildInDays.add(cellNumber, viewToAppend);
+
+        invalidate();
+    }
+
+    @Override
+    public void addViewToDay(DayMetadata dayMetadata, View viewToAppend) {
+        if (dayMetadata == null) return;
+
+        addViewToDayKey(dayMetadata.toDayKey(), viewToAppend);
+    }
+
+    public void setCurrentDay(Calendar currentDay) {
+        setCurrentDayKey(currentDay == null ? DayKey.NONE : DayKey.of(currentDay));
+    }
+
+    public void setCurrentDay(DayMetadata currentDay) {
+        setCurrentDayKey(currentDay == null ? DayKey.NONE : currentDay.toDayKey());
+    }
+
+    public void setCurrentDayKey(int dayKey) {
+        int cell = getCellForDayKey(dayKey);
+        if (cell != mCurrentCell) {
+            mCurrentCell = cell;
+            invalidate();
+        }
+    }
+
+    public void setSelectedDay(Calendar selectedDay) {
+        setSelectedDayKey(selectedDay == null ? DayKey.NONE : DayKey.of(selectedDay));
+    }
+
+    public void setSelectedDay(DayMetadata selectedDay) {
+        setSelectedDayKey(selectedDay == null ? DayKey.NONE : selectedDay.toDayKey());
+    }
+
+    public void setSelectedDayKey(int dayKey) {
+        int cell = getCellForDayKey(dayKey);
+        if (cell != mSelectedCell) {
+            mSelectedCell = cell;
+            invalidate();
+        }
+    }
+
+    /**
+     * Shows the given day, or its whole week if showing {@link #MAX_DAYS} days
+     */
+    public void setDate(DayMetadata dayMetadata) {
+        onDaysChanging();
+        mDay = dayMetadata;
+
+        setSelectedDay((DayMetadata) null);
+        clearSelection();
+        removeAllContent();
+        sharedSetDate();
+        notifyTimedEventsChanged();
+        onDaysChanged(false);
+    }
+
+    public DayMetadata getSelectedDay() {
+        if (mSelectedCell == INITIAL) {
+            return null;
+        }
+        return mDayMetadata[mSelectedCell];
+    }
+
+    public int getSelectedDayKey() {
+        if (mSelectedCell == INITIAL) {
+            return DayKey.NONE;
+        }
+        return mFirstDayKey + mSelectedCell;
+    }
+
+    public int getSelectedCell() {
+        return mSelectedCell;
+    }
+
+    public void setFirstDayOfTheWeek(int firstDayOfTheWeekShift) {
+        if (mFirstDayOfTheWeekShift != firstDayOfTheWeekShift) {
+            mFirstDayOfTheWeekShift = firstDayOfTheWeekShift;
+
+            // Only moves the days when showing whole weeks
+            if (mDay != null && mDayCount == DAYS_IN_WEEK) {
+                setDate(mDay);
+            }
+        }
+    }
+
+    public void setDayCount(int dayCount) {
+        dayCount = Math.max(1, Math.min(dayCount, MAX_DAYS));
+        if (dayCount == mDayCount) return;
+
+        // Saved while the cells still match the frame
+        onDaysChanging();
+        mDayCount = dayCount;
+        mDayCells = new RectF[dayCount];
+        mDayMetadata = new DayMetadata[dayCount];
+        if (mDay != null) {
+            setDate(mDay);
+        } else {
+            removeAllContent();
+            onDaysChanged(false);
+        }
+        requestLayout();
+    }
+
+    public int getDayCount() {
+        return mDayCount;
+    }
+
+    public void setHourHeight(float hourHeight) {
+        if (hourHeight != mHourHeight && hourHeight > 0) {
+            mHourHeight = hourHeight;
+            requestLayout();
+        }
+    }
+
+    public float getHourHeight() {
+        return mHourHeight;
+    }
+
+    public void setAllDayLaneHeight(float allDayLaneHeight) {
+        if (allDayLaneHeight != mAllDayLaneHeight && allDayLaneHeight >= 0) {
+            mAllDayLaneHeight = allDayLaneHeight;
+            requestLayout();
+        }
+    }
+
+    public ArrayList<View> getDayContent(DayMetadata day) {
+        if (day != null) {
+            return getDayKeyContent(day.toDayKey());
+        }
+        return null;
+    }
+
+    public void setDayContent(DayMetadata day, ArrayList<View> newContent) {
+        if (day != null) {
+            setDayKeyContent(day.toDayKey(), newContent);
+        }
+    }
+
+    public ArrayList<View> getCellContent(int cellNumber) {
+        if (cellNumber < 0 || cellNumber >= getCellCount()) return null;
+        return mChildInDays.toList(cellNumber);
+    }
+
+    public int getCellContentCount(int cellNumber) {
+        if (cellNumber < 0 || cellNumber >= getCellCount()) return 0;
+        return mChildInDays.getCount(cellNumber);
+    }
+
+    public View getCellContentAt(int cellNumber, int index) {
+        if (index < 0 || index >= getCellContentCount(cellNumber)) return null;
+        return mChildInDays.get(cellNumber, index);
+    }
+
+    /**
+     * Goes through the content of a cell without copying it
+     */
+    public void forEachInCell(int cellNumber, CellContent.Visitor visitor) {
+        if (cellNumber < 0 || cellNumber >= getCellCount()) return;
+        mChildInDays.forEachInCell(cellNumber, visitor);
+    }
+
+    public void setCellContent(int cellNumber, ArrayList<View> newContent) {
+        if (cellNumber < 0 || cellNumber >= getCellCount()) return;
+
+        // Add new views and remove discarded views
+        for (View newView : newContent) {
+            if (!mChildInDays.contains(cellNumber, newView)) {
+                addView(newView);
+            }
+        }
+        for (int i = 0; i < mChildInDays.getCount(cellNumber); i++) {
+            View oldView = mChildInDays.get(cellNumber, i);
+            if (!(newContent.contains(oldView))) {
+                removeView(oldView);
+            }
+        }
+
+        // Set new content
+        mChildInDays.set(cellNumber, newContent);
+        requestLayout();
+    }
+
+    public int getCellCount() {
+        return mDayCount;
+    }
+
+    @Override
+    protected RectF[] getDayCells() {
+        return mDayCells;
+    }
+
+    public int getDayKeyForCell(int cellNumber) {
+        if (cellNumber < 0 || cellNumber >= getCellCount()) return DayKey.NONE;
+
+        return mFirstDayKey + cellNumber;
+    }
+
+    @Override
+    protected DayMetadata getDayMetadataForCell(int cellNumber) {
+        return mDayMetadata[cellNumber];
+    }
+
+    // Timed events
+    public void setTimedEventAdapter(TimedEventAdapter adapter) {
+        mAdapter = adapter;
+        mScrapViews.clear();
+        notifyTimedEventsChanged();
+    }
+
+    /**
+     * Call when the events of the adapter changed, the columns get packed again and the visible
+     * ones rebound
+     */
+    public void notifyTimedEventsChanged() {
+        // Everything goes back to the scrap, positions are not valid anymore
+        for (int i = 0; i < mMaterializedCount; i++) {
+            recycleEvent(mMaterializedEvents[i]);
+        }
+        mMaterializedCount = 0;
+
+        collectEvents();
+        for (int cell = 0; cell < mDayCount; cell++) {
+            packColumns(mFirstEventOfCell[cell], mFirstEventOfCell[cell + 1]);
+        }
+
+        requestLayout();
+        invalidate();
+    }
+
+    private void collectEvents() {
+        mEventCount = 0;
+        if (mAdapter == null || mDay == null) {
+            Arrays.fill(mFirstEventOfCell, 0);
+            return;
+        }
+
+        // Only the events of the days we show, sorted by day and start. Longer events go first so
+        // they get the leftmost columns.
+        final TimedEventAdapter adapter = mAdapter;
+        ArrayList<Integer> positions = new ArrayList<>();
+        for (int position = 0; position < adapter.getEventCount(); position++) {
+            int cell = adapter.getDayKey(position) - mFirstDayKey;
+            if (cell >= 0 && cell < mDayCount) {
+                positions.add(position);
+            }
+        }
+        Integer[] sortedPositions = positions.toArray(new Integer[positions.size()]);
+        Arrays.sort(sortedPositions, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer lhs, Integer rhs) {
+                int lhsDay = adapter.getDayKey(lhs);
+                int rhsDay = adapter.getDayKey(rhs);
+                if (lhsDay != rhsDay) return lhsDay < rhsDay ? -1 : 1;
+                int lhsStart = getStartMinute(adapter, lhs);
+                int rhsStart = getStartMinute(adapter, rhs);
+                if (lhsStart != rhsStart) return lhsStart < rhsStart ? -1 : 1;
+                int lhsEnd = getEndMinute(adapter, lhs);
+                int rhsEnd = getEndMinute(adapter, rhs);
+                return lhsEnd == rhsEnd ? 0 : (lhsEnd > rhsEnd ? -1 : 1);
+            }
+        });
+
+        mEventCount = sortedPositions.length;
+        if (mEventPositions.length < mEventCount) {
+            mEventPositions = new int[mEventCount];
+            mEventStarts = new int[mEventCount];
+            mEventEnds = new int[mEventCount];
+            mEventMaxEnds = new int[mEventCount];
+            mEventColumns = new int[mEventCount];
+            mEventColumnCounts = new int[mEventCount];
+            mEventViews = new View[mEventCount];
+        }
+
+        int cell = 0;
+        mFirstEventOfCell[0] = 0;
+        for (int i = 0; i < mEventCount; i++) {
+            int position = sortedPositions[i];
+            int eventCell = adapter.getDayKey(position) - mFirstDayKey;
+            while (cell < eventCell) {
+                mFirstEventOfCell[++cell] = i;
+            }
+
+            mEventPositions[i] = position;
+            mEventStarts[i] = getStartMinute(adapter, position);
+            mEventEnds[i] = getEndMinute(adapter, position);
+            mEventMaxEnds[i] = i == mFirstEventOfCell[cell] ? mEventEnds[i] :
+                    Math.max(mEventMaxEnds[i - 1], mEventEnds[i]);
+        }
+        while (cell < mDayCount) {
+            mFirstEventOfCell[++cell] = mEventCount;
+        }
+    }
+
+    private static int getStartMinute(TimedEventAdapter adapter, int position) {
+        return Math.max(0, Math.min(adapter.getStartMinute(position), MINUTES_IN_DAY - 1));
+    }
+
+    private static int getEndMinute(TimedEventAdapter adapter, int position) {
+        // At least a minute long so it has some height
+        return Math.max(getStartMinute(adapter, position) + 1,
+                Math.min(adapter.getEndMinute(position), MINUTES_IN_DAY));
+    }
+
+    private void packColumns(int from, int to) {
+        // Sweep line over the events sorted by start: each one takes the first column that is free
+        // when it starts, and every event of a group of overlapping events shares the column count
+        int groupStart = from;
+        int groupEnd = Integer.MIN_VALUE;
+        int columnCount = 0;
+        for (int i = from; i < to; i++) {
+            if (mEventStarts[i] >= groupEnd) {
+                closeColumnGroup(groupStart, i, columnCount);
+                groupStart = i;
+                groupEnd = Integer.MIN_VALUE;
+                columnCount = 0;
+            }
+
+            int column = 0;
+            while (column < columnCount && mColumnEnds[column] > mEventStarts[i]) {
+                column++;
+            }
+            if (column == columnCount) {
+                if (columnCount == mColumnEnds.length) {
+                    mColumnEnds = Arrays.copyOf(mColumnEnds, columnCount * 2);
+                }
+                columnCount++;
+            }
+            mColumnEnds[column] = mEventEnds[i];
+            mEventColumns[i] = column;
+            groupEnd = Math.max(groupEnd, mEventEnds[i]);
+        }
+        closeColumnGroup(groupStart, to, columnCount);
+    }
+
+    private void closeColumnGroup(int from, int to, int columnCount) {
+        for (int i = from; i < to; i++) {
+            mEventColumnCounts[i] = columnCount;
+        }
+    }
+
+    private void layoutEvents() {
+        if (mDayCells.length == 0 || mDayCells[0] == null) return;
+
+        int windowStart = (int) (mScrollOffset / mHourHeight * MINUTES_IN_HOUR);
+        int windowEnd = (int) Math.ceil((mScrollOffset + getHeight() - mGridTop) / mHourHeight * MINUTES_IN_HOUR);
+
+        // Recycle the events that went out of the visible hours
+        int kept = 0;
+        for (int i = 0; i < mMaterializedCount; i++) {
+            int event = mMaterializedEvents[i];
+            if (mEventStarts[event] < windowEnd && mEventEnds[event] > windowStart) {
+                mMaterializedEvents[kept++] = event;
+            } else {
+                recycleEvent(event);
+            }
+        }
+        mMaterializedCount = kept;
+
+        // And create the ones that came in
+        for (int cell = 0; cell < mDayCount; cell++) {
+            int lastEvent = mFirstEventOfCell[cell + 1];
+            for (int event = findFirstEventEndingAfter(cell, windowStart);
+                 event < lastEvent && mEventStarts[event] < windowEnd; event++) {
+                if (mEventEnds[event] > windowStart && mEventViews[event] == null) {
+                    materializeEvent(event);
+                }
+            }
+        }
+
+        for (int i = 0; i < mMaterializedCount; i++) {
+            layoutEvent(mMaterializedEvents[i]);
+        }
+    }
+
+    private int findFirstEventEndingAfter(int cell, int minute) {
+        // The furthest end is sorted within the day, so we can binary search it
+        int low = mFirstEventOfCell[cell];
+        int high = mFirstEventOfCell[cell + 1];
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (mEventMaxEnds[middle] > minute) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    private void materializeEvent(int event) {
+        View convertView = mScrapViews.isEmpty() ? null : mScrapViews.remove(mScrapViews.size() - 1);
+        View view = mAdapter.getView(mEventPositions[event], convertView, this);
+        if (convertView != null && view != convertView) {
+            mScrapViews.add(convertView);
+        }
+
+        LayoutParams params = view.getLayoutParams();
+        if (params == null) {
+            params = generateDefaultLayoutParams();
+        }
+        addViewInLayout(view, -1, params, true);
+
+        mEventViews[event] = view;
+        if (mMaterializedCount == mMaterializedEvents.length) {
+            mMaterializedEvents = Arrays.copyOf(mMaterializedEvents, mMaterializedCount * 2);
+        }
+        mMaterializedEvents[mMaterializedCount++] = event;
+    }
+
+    private void recycleEvent(int event) {
+        View view = mEventViews[event];
+        if (view == null) return;
+
+        removeViewInLayout(view);
+        mScrapViews.add(view);
+        mEventViews[event] = null;
+    }
+
+    private void layoutEvent(int event) {
+        View view = mEventViews[event];
+        int cell = getCellForEvent(event);
+        float columnWidth = mDayCells[cell].width() / mEventColumnCounts[event];
+        float left = mDayCells[cell].left + columnWidth * mEventColumns[event];
+        float top = mGridTop - mScrollOffset + mEventStarts[event] * mHourHeight / MINUTES_IN_HOUR;
+        float bottom = mGridTop - mScrollOffset + mEventEnds[event] * mHourHeight / MINUTES_IN_HOUR;
+
+        // Measuring with the same specs again is cached by the view
+        view.measure(MeasureSpec.makeMeasureSpec((int) columnWidth, MeasureSpec.EXACTLY),
+                MeasureSpec.makeMeasureSpec((int) (bottom - top), MeasureSpec.EXACTLY));
+        view.layout((int) left, (int) top, (int) left + view.getMeasuredWidth(),
+                (int) top + view.getMeasuredHeight());
+    }
+
+    private int getCellForEvent(int event) {
+        int cell = 0;
+        while (mFirstEventOfCell[cell + 1] <= event) {
+            cell++;
+        }
+        return cell;
+    }
+
+    // Scrolling
+    public int getScrollOffset() {
+        return mScrollOffset;
+    }
+
+    public void setScrollOffset(int scrollOffset) {
+        scrollOffset = Math.max(0, Math.min(scrollOffset, getMaxScrollOffset()));
+        if (scrollOffset != mScrollOffset) {
+            mScrollOffset = scrollOffset;
+            layoutEvents();
+            invalidate();
+        }
+    }
+
+    public void scrollToMinute(int minuteOfDay) {
+        setScrollOffset((int) (minuteOfDay * mHourHeight / MINUTES_IN_HOUR));
+    }
+
+    private int getMaxScrollOffset() {
+        if (getHeight() == 0) return Integer.MAX_VALUE; // Not measured yet, clamped on layout
+        return Math.max(0, (int) (mHourHeight * 24 - (getHeight() - mGridTop)));
+    }
+
+    @Override
+    public void computeScroll() {
+        if (mScroller.computeScrollOffset()) {
+            setScrollOffset(mScroller.getCurrY());
+            ViewCompat.postInvalidateOnAnimation(this);
+        }
+    }
+
+    // View methods
+    int mLastKnownWidth;
+    int mLastKnownHeight;
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+
+        mLastKnownWidth = w;
+        mLastKnownHeight = h;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+
+        float laneHeight = mEndOfHeaderWithWeekday + mAllDayLaneHeight;
+        int w = resolveSizeAndState((int) (
+                        (mSingleLetterWidth + mBetweenSiblingsPadding) // Single column min size
+                                * 2 // For chars in days of the month
+                                * mDayCount),
+                widthMeasureSpec, 0);
+        int h = resolveSizeAndState((int) (laneHeight + mHourHeight * 8), heightMeasureSpec, 0);
+
+        setMeasuredDimension(w, h);
+
+        // The all-day lane uses the cells, the hours go below
+        recalculateCells(w, (int) laneHeight, mDayCells, 1, mDayCount);
+        if (mDayCells.length == 0 || mDayCells[0] == null) return;
+        mGridTop = mDayCells[0].bottom;
+
+        for (int i = 0; i < getCellCount(); i++) {
+            measureCell(i);
+        }
+    }
+
+    @Override
+    protected void measureCell(int cellNumber) {
+        float alreadyUsedTop = mEndOfHeaderWithWeekday;
+        for (int j = 0; j < mChildInDays.getCount(cellNumber); j++) {
+            View viewToPlace = mChildInDays.get(cellNumber, j);
+            if (viewToPlace.getVisibility() != GONE) {
+                int wSpec = MeasureSpec.makeMeasureSpec(Math.round(mDayCells[cellNumber].width()), MeasureSpec.EXACTLY);
+                int hSpec = MeasureSpec.makeMeasureSpec(Math.round(mDayCells[cellNumber].height() - alreadyUsedTop), MeasureSpec.AT_MOST);
+                viewToPlace.measure(wSpec, hSpec);
+            }
+        }
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        super.onLayout(changed, l, t, r, b);
+
+        mCellsWithOverflow.clear();
+        mChildHitIndex.reset(getCellCount());
+        for (int i = 0; i < getCellCount(); i++) {
+            layoutCell(i);
+        }
+
+        // Might have been restored or resized
+        mScrollOffset = Math.max(0, Math.min(mScrollOffset, getMaxScrollOffset()));
+        layoutEvents();
+    }
+
+    @Override
+    protected void layoutCell(int cellNumber) {
+        mChildHitIndex.clearCell(cellNumber);
+        mCellsWithOverflow.remove(Integer.valueOf(cellNumber));
+
+        float topOffset = mEndOfHeaderWithWeekday;
+        int cellBottom = (int) (mDayCells[cellNumber].bottom - mOverflowHeight);
+        for (int j = 0; j < mChildInDays.getCount(cellNumber); j++) {
+            View viewToPlace = mChildInDays.get(cellNumber, j);
+            if (viewToPlace.getVisibility() != GONE) {
+
+                // If we overflow the cell, crop the view
+                int proposedItemBottom = (int) (mDayCells[cellNumber].top + topOffset + viewToPlace.getMeasuredHeight());
+                if (proposedItemBottom >= cellBottom) {
+                    proposedItemBottom = cellBottom;
+                } else if (viewToPlace.getVisibility() == VISIBLE) {
+                    // Only whole views can be tapped
+                    mChildHitIndex.add(cellNumber, (int) (mDayCells[cellNumber].top + topOffset), proposedItemBottom, viewToPlace);
+                }
+
+                viewToPlace.layout(
+                        (int) mDayCells[cellNumber].left,
+                        (int) (mDayCells[cellNumber].top + topOffset),
+                        (int) mDayCells[cellNumber].right,
+                        proposedItemBottom
+                );
+
+                topOffset += viewToPlace.getMeasuredHeight();
+
+                // If we don't have more space below, stop drawing them
+                if (proposedItemBottom == cellBottom) {
+                    mCellsWithOverflow.add(cellNumber);
+                    break;
+                }
+            }
+        }
+    }
+
+    @Override
+    protected boolean moveChildBetweenCells(View child, int fromCell, int toCell) {
+        if (fromCell < 0 || fromCell >= getCellCount() || toCell < 0 || toCell >= getCellCount()) return false;
+        if (!mChildInDays.remove(fromCell, child)) return false;
+
+        mChildInDays.add(toCell, child);
+        return true;
+    }
+
+    @Override
+    protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+        // Views of the all-day lane end before the hours
+        if (child.getBottom() <= mGridTop) {
+            return super.drawChild(canvas, child, drawingTime);
+        }
+
+        // Timed events can't go over the all-day lane when scrolled
+        int saveCount = canvas.save();
+        canvas.clipRect(0, mGridTop, getWidth(), getHeight());
+        boolean result = super.drawChild(canvas, child, drawingTime);
+        canvas.restoreToCount(saveCount);
+        return result;
+    }
+
+    @Override
+    protected void drawCalendar(CalendarRenderer renderer) {
+        renderer.drawPaint(mActiveBackgroundColor);
+        drawSelectedCell(renderer, mDayCells, mSelectedCell);
+        drawSelectedCells(renderer, mDayCells, mSelectedCells);
+        drawDropTarget(renderer, mDayCells);
+
+        // Weekdays and day numbers
+        float topOffset = mBetweenSiblingsPadding * 2 + mSingleLetterHeight;
+        for (int i = 0; i < getCellCount(); i++) {
+            // Current day might have a decoration
+            if (mCurrentCell == i && mCurrentDayDrawable != null) {
+                // Decoration
+                renderer.drawDrawable(mCurrentDayDrawable,
+                        (int) (mDayCells[i].left + mBetweenSiblingsPadding),
+                        (int) (mDayCells[i].top + topOffset),
+                        (int) (mDayCells[i].left + mBetweenSiblingsPadding + mDecorationSize),
+                        (int) (mDayCells[i].top + mDecorationSize + topOffset));
+
+                drawDayTextsInCell(renderer, i, mDayCells, mCurrentDayTextColor, mActiveTextColor, mDayMetadata);
+            } else {
+                drawDayTextsInCell(renderer, i, mDayCells, mActiveTextColor, mActiveTextColor, mDayMetadata);
+            }
+        }
+
+        drawOverflow(renderer, mCellsWithOverflow, mDayCells);
+        drawMarkers(renderer, mDayCells);
+
+        // Hours, only the visible ones
+        renderer.drawLine(0, mGridTop, getWidth(), mGridTop, mSeparationPaint);
+        int firstHour = (int) (mScrollOffset / mHourHeight);
+        for (int hour = firstHour; hour < HOUR_LABELS.length; hour++) {
+            float hourTop = mGridTop - mScrollOffset + hour * mHourHeight;
+            if (hourTop > getHeight()) break;
+            if (hourTop < mGridTop) continue;
+
+            renderer.drawLine(0, hourTop, getWidth(), hourTop, mSeparationPaint);
+            renderer.drawText(HOUR_LABELS[hour], mDayCells[0].left + mBetweenSiblingsPadding,
+                    hourTop + mBetweenSiblingsPadding + mSingleLetterHeight, mInactiveTextColor);
+        }
+
+        drawVerticalSeparation(renderer, mDayCells);
+    }
+
+    // Interaction
+    @Override
+    public boolean onInterceptTouchEvent(MotionEvent ev) {
+        return true;
+    }
+
+    @Override
+    public boolean onDown(MotionEvent e) {
+        mScroller.forceFinished(true);
+        startRangeSelection(e);
+        return true;
+    }
+
+    @Override
+    public int getCellNumberFromLocation(float x, float y) {
+        if (y < mGridTop) {
+            return super.getCellNumberFromLocation(x, y);
+        }
+
+        // On the hours, any point of the column is part of the day
+        for (int i = 0; i < mDayCells.length; i++) {
+            if (mDayCells[i] != null && x >= mDayCells[i].left && x < mDayCells[i].right) {
+                return i;
+            }
+        }
+        return INITIAL;
+    }
+
+    @Override
+    protected View findChildInCell(int cellNumber, float x, float y) {
+        if (y < mGridTop || cellNumber == INITIAL || mEventViews == null) {
+            return super.findChildInCell(cellNumber, x, y);
+        }
+
+        // Events overlapping the minute, the binary search skips the ones that ended before
+        float minute = (y - mGridTop + mScrollOffset) / mHourHeight * MINUTES_IN_HOUR;
+        int lastEvent = mFirstEventOfCell[cellNumber + 1];
+        for (int event = findFirstEventEndingAfter(cellNumber, (int) minute);
+             event < lastEvent && mEventStarts[event] <= minute; event++) {
+            View view = mEventViews[event];
+            if (view != null && mEventEnds[event] > minute && x >= view.getLeft() && x < view.getRight()) {
+                return view;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean onSingleTapUp(MotionEvent e) {
+        if (notifyChildTapped(e.getX(), e.getY())) return true;
+
+        toggleMultipleSelection(e);
+
+        int cell = getCellNumberFromLocation(e.getX(), e.getY());
+        if (cell != INITIAL) {
+            return notifyTapEnded(cell);
+        }
+        return false;
+    }
+
+    @Override
+    public void onLongPress(MotionEvent e) {
+        if (startChildDrag(e)) return;
+
+        int cell = getCellNumberFromLocation(e.getX(), e.getY());
+        if (cell != INITIAL) {
+            notifyLongClick(cell);
+        }
+    }
+
+    @Override
+    public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
+        if (extendRangeSelection(e2)) return true;
+
+        setScrollOffset((int) (mScrollOffset + distanceY));
+        return true;
+    }
+
+    @Override
+    public void onShowPress(MotionEvent e) {
+
+    }
+
+    @Override
+    public boolean onFling(MotionEvent e1, MotionEvent e2, float velocityX, float velocityY) {
+        if (mSelectionMode == SELECTION_RANGE) return false;
+
+        mScroller.fling(0, mScrollOffset, 0, (int) -velocityY, 0, 0, 0, getMaxScrollOffset());
+        ViewCompat.postInvalidateOnAnimation(this);
+        return true;
+    }
+
+    // Persistence
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        Parcelable superState = super.onSaveInstanceState();
+        MyOwnState myOwnState = new MyOwnState(superState);
+        myOwnState.mDay = mDay;
+        myOwnState.mDayCount = mDayCount;
+        myOwnState.mScrollOffset = mScrollOffset;
+        myOwnState.mCurrentCell = mCurrentCell;
+        myOwnState.mSelectedCell = mSelectedCell;
+        myOwnState.mLastKnownWidth = mLastKnownWidth;
+        myOwnState.mLastKnownHeight = mLastKnownHeight;
+        myOwnState.mContentSnapshot = createContentSnapshot();
+        return myOwnState;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof MyOwnState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+
+        MyOwnState myOwnState = (MyOwnState) state;
+        super.onRestoreInstanceState(myOwnState.getSuperState());
+
+        setDayCount(myOwnState.mDayCount);
+        if (myOwnState.mDay != null) {
+            setDateInternal(myOwnState.mDay);
+            notifyTimedEventsChanged();
+        }
+        mScrollOffset = myOwnState.mScrollOffset;
+        mCurrentCell = myOwnState.mCurrentCell;
+        mSelectedCell = myOwnState.mSelectedCell;
+        mLastKnownWidth = myOwnState.mLastKnownWidth;
+        mLastKnownHeight = myOwnState.mLastKnownHeight;
+        recalculateCells(mLastKnownWidth, (int) (mEndOfHeaderWithWeekday + mAllDayLaneHeight),
+                mDayCells, 1, mDayCount);
+        restoreContentSnapshot(myOwnState.mContentSnapshot);
+    }
+
+    private static class MyOwnState extends BaseSavedState {
+        DayMetadata mDay;
+        int mDayCount;
+        int mScrollOffset;
+        int mCurrentCell;
+        int mSelectedCell;
+        int mLastKnownWidth;
+        int mLastKnownHeight;
+        ContentSnapshot mContentSnapshot;
+
+        MyOwnState(Parcelable superState) {
+            super(superState);
+        }
+
+        MyOwnState(Parcel in) {
+            super(in);
+            int dayKey = in.readInt();
+            mDay = dayKey == DayKey.NONE ? null : DayMetadata.fromDayKey(dayKey);
+            mDayCount = in.readInt();
+            mScrollOffset = in.readInt();
+            mCurrentCell = in.readInt();
+            mSelectedCell = in.readInt();
+            mLastKnownWidth = in.readInt();
+            mLastKnownHeight = in.readInt();
+            mContentSnapshot = in.readParcelable(ContentSnapshot.class.getClassLoader());
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeInt(mDay == null ? DayKey.NONE : mDay.toDayKey());
+            out.writeInt(mDayCount);
+            out.writeInt(mScrollOffset);
+            out.writeInt(mCurrentCell);
+            out.writeInt(mSelectedCell);
+            out.writeInt(mLastKnownWidth);
+            out.writeInt(mLastKnownHeight);
+            out.writeParcelable(mContentSnapshot, flags);
+        }
+
+        public static final Creator<MyOwnState> CREATOR =
+            new Creator<DayTimelineView.MyOwnState>() {
+                public DayTimelineView.MyOwnState createFromParcel(Parcel in) {
+                    return new DayTimelineView.MyOwnState(in);
+                }
+                public DayTimelineView.MyOwnState[] newArray(int size) {
+                    return new DayTimelineView.MyOwnState[size];
+                }
+            };
+    }
+
+    // Other
+    @Override
+    public String toString() {
+        if (mDay == null) return super.toString();
+        return mDay.getYear() + "-" + mDay.getMonth() + "-" + mDay.getDay() + "+" + mDayCount;
+    }
+}
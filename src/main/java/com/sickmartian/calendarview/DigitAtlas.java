@@ -0,0 +1,90 @@
+package com.sickmartian.calendarview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+
+/**
+ * The digits 0 to 9 rasterized once for a text size and typeface, so numbers can be drawn
+ * by copying glyphs instead of going through the text stack.
+ * The atlas is an alpha only bitmap, it takes the color of the paint it is drawn with,
+ * so the same atlas serves every color.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class DigitAtlas {
+
+    private static final int DIGITS = 10;
+    private static final int GLYPH_PADDING = 1; // Room for glyphs going a bit out of their advance
+    private static final String[] DIGIT_STRINGS = {"0", "1", "2", "3", "4", "5", "6", "7", "8", "9"};
+
+    private final float mTextSize;
+    private final Typeface mTypeface;
+    private final Bitmap mBitmap;
+    private final float[] mAdvances = new float[DIGITS];
+    private final int[] mGlyphLefts = new int[DIGITS];
+    private final int[] mGlyphWidths = new int[DIGITS];
+    private final float mAscent;
+    private final int mHeight;
+
+    private final Paint mBlitPaint = new Paint();
+    private final Rect mSource = new Rect();
+    private final RectF mDestination = new RectF();
+
+    public DigitAtlas(Paint paint) {
+        mTextSize = paint.getTextSize();
+        mTypeface = paint.getTypeface();
+        mAscent = paint.ascent();
+        mHeight = (int) Math.ceil(paint.descent() - mAscent);
+
+        int width = 0;
+        for (int digit = 0; digit < DIGITS; digit++) {
+            mAdvances[digit] = paint.measureText(DIGIT_STRINGS[digit]);
+            mGlyphLefts[digit] = width;
+            mGlyphWidths[digit] = (int) Math.ceil(mAdvances[digit]) + GLYPH_PADDING * 2;
+            width += mGlyphWidths[digit];
+        }
+
+        // Color doesn't matter, only the coverage is kept
+        Paint glyphPaint = new Paint(paint);
+        glyphPaint.setTextAlign(Paint.Align.LEFT);
+        glyphPaint.setColor(0xFF000000);
+        mBitmap = Bitmap.createBitmap(Math.max(width, 1), Math.max(mHeight, 1), Bitmap.Config.ALPHA_8);
+        Canvas canvas = new Canvas(mBitmap);
+        for (int digit = 0; digit < DIGITS; digit++) {
+            canvas.drawText(DIGIT_STRINGS[digit], mGlyphLefts[digit] + GLYPH_PADDING, -mAscent, glyphPaint);
+        }
+    }
+
+    public boolean matches(Paint paint) {
+        return paint.getTextSize() == mTextSize && paint.getTypeface() == mTypeface;
+    }
+
+    /**
+     * Draws the text like {@link Canvas#drawText(String, float, float, Paint)} would with a left
+     * aligned paint. Returns false without drawing anything if the text isn't only digits.
+     */
+    public boolean drawText(Canvas canvas, String text, float x, float y, Paint paint) {
+        for (int i = 0; i < text.length(); i++) {
+            char character = text.charAt(i);
+            if (character < '0' || character > '9') return false;
+        }
+
+        mBlitPaint.setColor(paint.getColor());
+        float top = y + mAscent;
+        for (int i = 0; i < text.length(); i++) {
+            int digit = text.charAt(i) - '0';
+            mSource.set(mGlyphLefts[digit], 0, mGlyphLefts[digit] + mGlyphWidths[digit], mHeight);
+            mDestination.set(x - GLYPH_PADDING, top, x - GLYPH_PADDING + mGlyphWidths[digit], top + mHeight);
+            canvas.drawBitmap(mBitmap, mSource, mDestination, mBlitPaint);
+            x += mAdvances[digit];
+        }
+        return true;
+    }
+
+    public void recycle() {
+        mBitmap.recycle();
+    }
+}
@@ -0,0 +1,167 @@
+package com.sickmartian.calendarview;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.FrameMetrics;
+import android.view.Window;
+
+/**
+ * Times real frames of a view drawing its day numbers as text and from a {@link DigitAtlas},
+ * to decide on a device if {@link CalendarView#setUseDigitAtlas(boolean)} pays off.
+ * Frames go through the (hardware) renderer of the window like any other and their cost is read
+ * from {@link FrameMetrics}. The paths take turns in blocks of frames, text, atlas, atlas, text
+ * and so on, so neither one always goes first.
+ * Frame metrics need API 24, below that {@link #start()} does nothing.
+ * Has to run on the UI thread, with the view attached and its content in place.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class DigitAtlasBenchmark {
+
+    private static final int FRAMES_PER_BLOCK = 10;
+    private static final int WARM_UP_BLOCKS = 2; // One for every path
+
+    public interface Listener {
+        void onBenchmarkFinished(DigitAtlasBenchmark benchmark, Result result);
+    }
+
+    public static class Result {
+        public final long drawTextNanosPerFrame;
+        public final long atlasNanosPerFrame;
+
+        Result(long drawTextNanosPerFrame, long atlasNanosPerFrame) {
+            this.drawTextNanosPerFrame = drawTextNanosPerFrame;
+            this.atlasNanosPerFrame = atlasNanosPerFrame;
+        }
+
+        public boolean isAtlasFaster() {
+            return atlasNanosPerFrame < drawTextNanosPerFrame;
+        }
+
+        @Override
+        public String toString() {
+            return "drawText: " + drawTextNanosPerFrame + "ns atlas: " + atlasNanosPerFrame + "ns";
+        }
+    }
+
+    final CalendarView mView;
+    final Window mWindow;
+    final int mFrames;
+    final Listener mListener;
+    final Handler mHandler = new Handler(Looper.getMainLooper());
+    // Only created on API 24 and up, older devices can't load it
+    FrameMetricsListener mFrameMetricsListener;
+
+    boolean mRunning;
+    boolean mWaitingForFrame;
+    boolean mInitialUseDigitAtlas;
+    int mFrame;
+    int mDrawTextFrames;
+    long mDrawTextNanos;
+    int mAtlasFrames;
+    long mAtlasNanos;
+
+    /**
+     * @param frames Frames timed for every path, warm up and switches not included
+     */
+    public DigitAtlasBenchmark(CalendarView view, Window window, int frames, Listener listener) {
+        mView = view;
+        mWindow = window;
+        mFrames = Math.max(frames, 1);
+        mListener = listener;
+    }
+
+    /**
+     * @return False if frame metrics are not available on the device, nothing is timed then
+     */
+    public boolean start() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.N) return false;
+        if (mRunning) return true;
+
+        mRunning = true;
+        mInitialUseDigitAtlas = mView.isUsingDigitAtlas();
+        mFrame = 0;
+        mDrawTextFrames = 0;
+        mDrawTextNanos = 0;
+        mAtlasFrames = 0;
+        mAtlasNanos = 0;
+        // Reported on the UI thread, where the next frame is asked for
+        if (mFrameMetricsListener == null) mFrameMetricsListener = new FrameMetricsListener();
+        mWindow.addOnFrameMetricsAvailableListener(mFrameMetricsListener, mHandler);
+        requestFrame();
+        return true;
+    }
+
+    /**
+     * Stops without reporting, the view goes back to the path it had
+     */
+    public void cancel() {
+        if (!mRunning) return;
+
+        stop();
+    }
+
+    public boolean isRunning() {
+        return mRunning;
+    }
+
+    @TargetApi(Build.VERSION_CODES.N)
+    private class FrameMetricsListener implements Window.OnFrameMetricsAvailableListener {
+        @Override
+        public void onFrameMetricsAvailable(Window window, FrameMetrics frameMetrics, int dropCountSinceLastInvocation) {
+            // Recording the frame, uploading its bitmaps and issuing it to the GPU
+            onFrame(frameMetrics.getMetric(FrameMetrics.DRAW_DURATION) +
+                    frameMetrics.getMetric(FrameMetrics.SYNC_DURATION) +
+                    frameMetrics.getMetric(FrameMetrics.COMMAND_ISSUE_DURATION));
+        }
+    }
+
+    void onFrame(long nanos) {
+        if (!mRunning || !mWaitingForFrame) return;
+        mWaitingForFrame = false;
+
+        // The first frame of a block builds or drops the atlases, it's not a steady frame
+        int block = mFrame / FRAMES_PER_BLOCK;
+        if (block >= WARM_UP_BLOCKS && mFrame % FRAMES_PER_BLOCK != 0) {
+            if (usesAtlas(block)) {
+                mAtlasNanos += nanos;
+                mAtlasFrames++;
+            } else {
+                mDrawTextNanos += nanos;
+                mDrawTextFrames++;
+            }
+        }
+        mFrame++;
+
+        if (mDrawTextFrames >= mFrames && mAtlasFrames >= mFrames) {
+            stop();
+            if (mListener != null) {
+                mListener.onBenchmarkFinished(this,
+                        new Result(mDrawTextNanos / mDrawTextFrames, mAtlasNanos / mAtlasFrames));
+            }
+            return;
+        }
+        requestFrame();
+    }
+
+    private void requestFrame() {
+        mView.setUseDigitAtlas(usesAtlas(mFrame / FRAMES_PER_BLOCK));
+        mWaitingForFrame = true;
+        mView.invalidate();
+    }
+
+    @TargetApi(Build.VERSION_CODES.N) // Only running after start() checked the version
+    private void stop() {
+        mRunning = false;
+        mWaitingForFrame = false;
+        mWindow.removeOnFrameMetricsAvailableListener(mFrameMetricsListener);
+        mView.setUseDigitAtlas(mInitialUseDigitAtlas);
+    }
+
+    private static boolean usesAtlas(int block) {
+        // Text, atlas, atlas, text: every path goes first as many times as the other
+        int position = block % 4;
+        return position == 1 || position == 2;
+    }
+}
@@ -1,5 +1,6 @@
 package com.sickmartian.calendarview;
 
+import android.animation.ValueAnimator;
 import android.content.Context;
 import android.graphics.Canvas;
 import android.graphics.Color;
@@ -24,8 +25,12 @@ public class MonthView extends CalendarView implements GestureDetector.OnGesture
     public static final int ROWS = 6;
     public static final int DAYS_IN_GRID = 42;
 
+    // Content is kept by day of the month instead of by cell: slot 0 is the earliest day a grid
+    // can show, 6 days before the 1st. Changing the first day of the week only moves the mapping.
+    static final int SLOTS = DAYS_IN_GRID + DAYS_IN_WEEK - 1;
+
     // User set state
-    ArrayList<ArrayList<View>> mChildInDays;
+    CellContent mChildInDays;
     int mCurrentDay;
     int mSelectedDay = INITIAL;
     int mYear;
@@ -37,6 +42,7 @@ public class MonthView extends CalendarView implements GestureDetector.OnGesture
     ArrayList<Integer> mCellsWithOverflow;
     int mLastDayOfMonth;
     int mFirstCellOfMonth = INITIAL;
+    int mFirstDayKeyOfGrid;
 
     private static class DayNumber implements DayString {
         private String dayString;
@@ -55,6 +61,10 @@ public class MonthView extends CalendarView implements GestureDetector.OnGesture
         super(context, attrs);
     }
 
+    public MonthView(Context context, CalendarStyle style) {
+        super(context, style);
+    }
+
     private void setDateInternal(int month, int year) {
         mYear = year;
         mMonth = month;
@@ -92,6 +102,7 @@ public class MonthView extends CalendarView implements GestureDetector.OnGesture
             }
             mDayNumbers[i] = new DayNumber(day);
         }
+        mFirstDayKeyOfGrid = DayKey.of(mYear, mMonth + 1, 1) - mFirstCellOfMonth;
 
         invalidate();
     }
@@ -101,20 +112,23 @@ public class MonthView extends CalendarView implements GestureDetector.OnGesture
         removeAllViews();
 
         mCellsWithOverflow = new ArrayList<>();
-        mChildInDays = new ArrayList<>();
-        for (int i = 0; i < DAYS_IN_GRID; i++) {
-            mChildInDays.add(i, new ArrayList<View>());
+        // Kept between months, so loading again doesn't allocate
+        if (mChildInDays == null) {
+            mChildInDays = new CellContent(SLOTS);
+        } else {
+            mChildInDays.clear();
         }
     }
 
+    int getSlotForCell(int cellNumber) {
+        return cellNumber - Math.max(mFirstCellOfMonth, 0) + DAYS_IN_WEEK - 1;
+    }
+
     public void addViewToCell(int cellNumber, View viewToAppend) {
-        if (cellNumber < 0 || cellNumber > DAYS_IN_GRID) return;
+        if (cellNumber < 0 || cellNumber >= DAYS_IN_GRID) return;
 
         addView(viewToAppend);
-
-        ArrayList<View> dayArray = mChildInDays.get(cellNumber);
-        dayArray.add(viewToAppend);
-        mChildInDays.set(cellNumber, dayArray);
+        mChildInDays.add(getSlotForCell(cellNumber), viewToAppend);
 
         invalidate();
     }
@@ -201,13 +215,42 @@ public class MonthView extends CalendarView implements GestureDetector.OnGesture
         }
     }
 
+    public void setCurrentDayKey(int dayKey) {
+        int cell = getCellForDayKey(dayKey);
+        setCurrentDay(cell == INITIAL ? INITIAL : cell - mFirstCellOfMonth + 1);
+    }
+
+    public void setSelectedDayKey(int dayKey) {
+        int cell = getCellForDayKey(dayKey);
+        setSelectedDay(cell == INITIAL ? INITIAL : cell - mFirstCellOfMonth + 1);
+    }
+
+    public int getSelectedDayKey() {
+        if (mSelectedDay == INITIAL) {
+            return DayKey.NONE;
+        }
+        return mFirstDayKeyOfGrid + mFirstCellOfMonth + mSelectedDay - 1;
+    }
+
     public void setDate(int month, int year) {
+        onDaysChanging();
+        if (mFirstCellOfMonth != INITIAL && retainContent(DayKey.of(mYear, mMonth + 1, 1), mChildInDays)) {
+            mChildInDays = null; // Belongs to the cache now
+        }
         mYear = year;
         mMonth = month - 1;
 
         setSelectedDay(INITIAL);
+        clearSelection();
         removeAllContent();
         sharedSetDate();
+
+        CellContent retainedContent = restoreRetainedContent(DayKey.of(mYear, mMonth + 1, 1), SLOTS);
+        if (retainedContent != null) {
+            mChildInDays = retainedContent;
+        }
+        // Retained content is in place already, the last month's frame can't stay over it
+        onDaysChanged(retainedContent != null);
     }
 
     public DayMetadata getSelectedDay() {
@@ -223,38 +266,15 @@ public class MonthView extends CalendarView implements GestureDetector.OnGesture
 
     public void setFirstDayOfTheWeek(int firstDayOfTheWeekShift) {
         if (mFirstDayOfTheWeekShift != firstDayOfTheWeekShift) {
+            onDaysChanging();
             mFirstDayOfTheWeekShift = firstDayOfTheWeekShift;
+            clearSelection(); // Cells will show other days
 
-            // Save pointer to previous data we might be able to save
-            int previousFirstCellOfMonth = mFirstCellOfMonth;
-
-            // Apply changes
-            mWeekDays = getWeekdaysForShift(mFirstDayOfTheWeekShift); // Reset weekday names
+            // Apply changes, content follows its days: in-month days keep their children,
+            // days that leave the grid keep theirs out of sight in case they come back
+            mWeekDays = getCachedWeekdaysForShift(mFirstDayOfTheWeekShift); // Reset weekday names
             setDateInternal(mMonth, mYear); // Reset cells - Invalidates the view
-
-            // Save month's content (discard out of month data)
-            ArrayList<ArrayList<View>> oldChilds = mChildInDays;
-            mChildInDays = new ArrayList<>();
-
-            // Remove out of bound views
-            for (int i = 0; i < DAYS_IN_GRID; i++) {
-                if (i < previousFirstCellOfMonth || i >= previousFirstCellOfMonth + mLastDayOfMonth) {
-                    for (int j = 0; j < oldChilds.get(i).size(); j++) {
-                        removeView(oldChilds.get(i).get(j));
-                    }
-                }
-            }
-
-            // Send in-month cells and add new out of bound cells
-            for (int i = 0; i < mFirstCellOfMonth; i++) {
-                mChildInDays.add(new ArrayList<View>());
-            }
-            for (int i = previousFirstCellOfMonth; i <= previousFirstCellOfMonth + mLastDayOfMonth; i++) {
-                mChildInDays.add(oldChilds.get(i));
-            }
-            for (int i = mChildInDays.size(); i < DAYS_IN_GRID; i++) {
-                mChildInDays.add(new ArrayList<View>());
-            }
+            onDaysChanged(!mWaitingForContent);
 
             requestLayout();
         }
@@ -268,6 +288,35 @@ public class MonthView extends CalendarView implements GestureDetector.OnGesture
         return mFirstCellOfMonth + mLastDayOfMonth;
     }
 
+    public int getCellCount() {
+        return DAYS_IN_GRID;
+    }
+
+    @Override
+    protected RectF[] getDayCells() {
+        return mDayCells;
+    }
+
+    @Override
+    protected long getSelectableCells() {
+        if (mFirstCellOfMonth == INITIAL) return 0;
+        return getCellRange(mFirstCellOfMonth, mFirstCellOfMonth + mLastDayOfMonth - 1);
+    }
+
+    public int getDayKeyForCell(int cellNumber) {
+        if (cellNumber < 0 || cellNumber >= DAYS_IN_GRID) return DayKey.NONE;
+
+        return mFirstDayKeyOfGrid + cellNumber;
+    }
+
+    @Override
+    public int getCellForDayKey(int dayKey) {
+        // Only days of this month can be used
+        int cell = super.getCellForDayKey(dayKey);
+        if (cell < mFirstCellOfMonth || cell >= mFirstCellOfMonth + mLastDayOfMonth) return INITIAL;
+        return cell;
+    }
+
     public ArrayList<View> getDayContent(DayMetadata dayMetadata) {
         if (dayMetadata != null) {
             if (dayMetadata.getMonth() == (mMonth + 1) && dayMetadata.getYear() == mYear) {
@@ -299,29 +348,51 @@ public class MonthView extends CalendarView implements GestureDetector.OnGesture
     }
 
     public ArrayList<View> getCellContent(int cellNumber) {
-        if (cellNumber < 0 || cellNumber > DAYS_IN_GRID) return null;
+        if (cellNumber < 0 || cellNumber >= DAYS_IN_GRID) return null;
+
+        return mChildInDays.toList(getSlotForCell(cellNumber));
+    }
+
+    public int getCellContentCount(int cellNumber) {
+        if (cellNumber < 0 || cellNumber >= getCellCount()) return 0;
+        return mChildInDays.getCount(getSlotForCell(cellNumber));
+    }
 
-        return (ArrayList<View>) mChildInDays.get(cellNumber).clone();
+    public View getCellContentAt(int cellNumber, int index) {
+        if (index < 0 || index >= getCellContentCount(cellNumber)) return null;
+        return mChildInDays.get(getSlotForCell(cellNumber), index);
+    }
+
+    /**
+     * Goes through the content of a cell without copying it
+     */
+    public void forEachInCell(int cellNumber, CellContent.Visitor visitor) {
+        if (cellNumber < 0 || cellNumber >= getCellCount()) return;
+        int slot = getSlotForCell(cellNumber);
+        for (int i = 0; i < mChildInDays.getCount(slot); i++) {
+            visitor.onView(cellNumber, i, mChildInDays.get(slot, i));
+        }
     }
 
     public void setCellContent(int cellNumber, ArrayList<View> newContent) {
-        if (cellNumber < 0 || cellNumber > DAYS_IN_GRID) return;
+        if (cellNumber < 0 || cellNumber >= DAYS_IN_GRID) return;
 
         // Add new views and remove discarded views
-        ArrayList<View> oldContent = mChildInDays.get(cellNumber);
+        int slot = getSlotForCell(cellNumber);
         for (View newView : newContent) {
-            if (!(oldContent.contains(newView))) {
+            if (!mChildInDays.contains(slot, newView)) {
                 addView(newView);
             }
         }
-        for (View oldView : oldContent) {
+        for (int i = 0; i < mChildInDays.getCount(slot); i++) {
+            View oldView = mChildInDays.get(slot, i);
             if (!(newContent.contains(oldView))) {
                 removeView(oldView);
             }
         }
 
         // Set new content
-        mChildInDays.set(cellNumber, newContent);
+        mChildInDays.set(slot, newContent);
         requestLayout();
     }
 
@@ -336,6 +407,123 @@ public class MonthView extends CalendarView implements GestureDetector.OnGesture
         addViewToCell(dayInMonth + mFirstCellOfMonth - 1, newView);
     }
 
+    // Collapsing to a single week
+    public static final long COLLAPSE_DURATION = 250;
+
+    public interface CollapseListener {
+        void onCollapseChanged(MonthView monthView, float collapseProgress, int visibleHeight);
+    }
+
+    float mCollapseProgress; // 0 is expanded, 1 is collapsed
+    int mCollapsedRow;
+    float mCollapseOffset; // How much the rows are moved up right now
+    int mVisibleHeight;
+    final float[] mExpandedRowTops = new float[ROWS];
+    final float[] mExpandedRowBottoms = new float[ROWS];
+    ValueAnimator mCollapseAnimator;
+    float mCollapseAnimationStart;
+    float mCollapseAnimationEnd;
+    CollapseListener mCollapseListener;
+
+    public void setCollapseListener(CollapseListener collapseListener) {
+        mCollapseListener = collapseListener;
+    }
+
+    /**
+     * Collapses the month to the week of the selected day (or the current day, or the first of
+     * the month). The rows slide up below the weekdays and everything under the visible height is
+     * left undrawn, without laying out anything again. The view keeps its size, use the
+     * {@link CollapseListener} to resize or cover the space that is left.
+     */
+    public void setCollapseProgress(float collapseProgress) {
+        collapseProgress = Math.max(0, Math.min(collapseProgress, 1));
+        if (collapseProgress == mCollapseProgress) return;
+
+        if (mCollapseProgress == 0) {
+            mCollapsedRow = getRowToCollapseTo();
+        }
+        mCollapseProgress = collapseProgress;
+        applyCollapseGeometry();
+        invalidate();
+
+        if (mCollapseListener != null) {
+            mCollapseListener.onCollapseChanged(this, mCollapseProgress, mVisibleHeight);
+        }
+    }
+
+    public float getCollapseProgress() {
+        return mCollapseProgress;
+    }
+
+    public int getVisibleHeight() {
+        return mCollapseProgress == 0 ? getHeight() : mVisibleHeight;
+    }
+
+    public void animateCollapse(boolean collapse) {
+        if (mCollapseAnimator == null) {
+            mCollapseAnimator = ValueAnimator.ofFloat(0, 1);
+            mCollapseAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+                @Override
+                public void onAnimationUpdate(ValueAnimator animation) {
+                    // The fraction avoids boxing the animated value on every frame
+                    setCollapseProgress(mCollapseAnimationStart +
+                            (mCollapseAnimationEnd - mCollapseAnimationStart) * animation.getAnimatedFraction());
+                }
+            });
+        }
+
+        mCollapseAnimator.cancel();
+        mCollapseAnimationStart = mCollapseProgress;
+        mCollapseAnimationEnd = collapse ? 1 : 0;
+        mCollapseAnimator.setDuration((long) (COLLAPSE_DURATION * Math.abs(mCollapseAnimationEnd - mCollapseProgress)));
+        mCollapseAnimator.start();
+    }
+
+    private int getRowToCollapseTo() {
+        int cell;
+        if (mSelectedDay != INITIAL) {
+            cell = mFirstCellOfMonth + mSelectedDay - 1;
+        } else if (mCurrentDay > 0) {
+            cell = mFirstCellOfMonth + mCurrentDay - 1;
+        } else {
+            cell = mFirstCellOfMonth;
+        }
+        return Math.max(cell, 0) / DAYS_IN_WEEK;
+    }
+
+    private void saveExpandedGeometry() {
+        for (int row = 0; row < ROWS; row++) {
+            mExpandedRowTops[row] = mDayCells[row * DAYS_IN_WEEK].top;
+            mExpandedRowBottoms[row] = mDayCells[row * DAYS_IN_WEEK].bottom;
+        }
+    }
+
+    private void setCellGeometry(float offset) {
+        for (int i = 0; i < DAYS_IN_GRID; i++) {
+            int row = i / DAYS_IN_WEEK;
+            mDayCells[i].top = mExpandedRowTops[row] - offset;
+            mDayCells[i].bottom = mExpandedRowBottoms[row] - offset;
+        }
+    }
+
+    private void applyCollapseGeometry() {
+        if (mDayCells[0] == null) return;
+
+        // The row we keep slides up until it is right below the weekdays
+        float fullOffset = mCollapsedRow == 0 ? 0 :
+                mExpandedRowTops[mCollapsedRow] - getFirstRowExtraHeight();
+        float expandedHeight = mExpandedRowBottoms[ROWS - 1];
+        float collapsedHeight = mExpandedRowBottoms[mCollapsedRow] - fullOffset;
+        mCollapseOffset = fullOffset * mCollapseProgress;
+        mVisibleHeight = Math.round(expandedHeight + (collapsedHeight - expandedHeight) * mCollapseProgress);
+        setCellGeometry(mCollapseOffset);
+
+        // Children keep their layout, they just move along
+        for (int i = 0; i < getChildCount(); i++) {
+            getChildAt(i).setTranslationY(-mCollapseOffset);
+        }
+    }
+
     // View methods
     int mLastKnownWidth;
     int mLastKnownHeight;
@@ -365,21 +553,24 @@ public class MonthView extends CalendarView implements GestureDetector.OnGesture
         // Measure child layouts if we have any
         recalculateCells(w, h, mDayCells, ROWS);
         if (mDayCells.length == 0 || mDayCells[0] == null) return;
+        saveExpandedGeometry();
+        setCellGeometry(mCollapseOffset);
 
-        float alreadyUsedTop = mEndOfHeaderWithWeekday;
         for (int i = 0; i < DAYS_IN_GRID; i++) {
-            if (i >= DAYS_IN_WEEK) {
-                alreadyUsedTop = mEndOfHeaderWithoutWeekday;
-            }
+            measureCell(i);
+        }
+    }
 
-            ArrayList<View> childArrayForDay = mChildInDays.get(i);
-            for (int j = 0; j < childArrayForDay.size(); j++) {
-                View viewToPlace = childArrayForDay.get(j);
-                if (viewToPlace.getVisibility() != GONE) {
-                    int wSpec = MeasureSpec.makeMeasureSpec(Math.round(mDayCells[i].width()), MeasureSpec.EXACTLY);
-                    int hSpec = MeasureSpec.makeMeasureSpec(Math.round(mDayCells[i].height() - alreadyUsedTop), MeasureSpec.AT_MOST);
-                    viewToPlace.measure(wSpec, hSpec);
-                }
+    @Override
+    protected void measureCell(int cellNumber) {
+        float alreadyUsedTop = cellNumber < DAYS_IN_WEEK ? mEndOfHeaderWithWeekday : mEndOfHeaderWithoutWeekday;
+        int slot = getSlotForCell(cellNumber);
+        for (int j = 0; j < mChildInDays.getCount(slot); j++) {
+            View viewToPlace = mChildInDays.get(slot, j);
+            if (viewToPlace.getVisibility() != GONE) {
+                int wSpec = MeasureSpec.makeMeasureSpec(Math.round(mDayCells[cellNumber].width()), MeasureSpec.EXACTLY);
+                int hSpec = MeasureSpec.makeMeasureSpec(Math.round(mDayCells[cellNumber].height() - alreadyUsedTop), MeasureSpec.AT_MOST);
+                viewToPlace.measure(wSpec, hSpec);
             }
         }
     }
@@ -388,53 +579,85 @@ public class MonthView extends CalendarView implements GestureDetector.OnGesture
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
         super.onLayout(changed, l, t, r, b);
 
+        // Children are always laid out expanded, collapsing only translates them
+        if (mDayCells[0] == null) return;
+
         mCellsWithOverflow.clear();
-        float topOffset;
+        mChildHitIndex.reset(DAYS_IN_GRID);
         for (int i = 0; i < DAYS_IN_GRID; i++) {
-            ArrayList<View> childArrayForDay = mChildInDays.get(i);
-            if (i >= DAYS_IN_WEEK) {
-                topOffset = mEndOfHeaderWithoutWeekday;
-            } else {
-                topOffset = mEndOfHeaderWithWeekday;
+            layoutCell(i);
+        }
+
+        // Days out of the grid keep their children, without any room
+        int firstSlotInGrid = getSlotForCell(0);
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if (slot >= firstSlotInGrid && slot < firstSlotInGrid + DAYS_IN_GRID) continue;
+
+            for (int j = 0; j < mChildInDays.getCount(slot); j++) {
+                mChildInDays.get(slot, j).layout(0, 0, 0, 0);
             }
+        }
 
-            int cellBottom = (int) (mDayCells[i].bottom - mOverflowHeight);
-            for (int j = 0; j < childArrayForDay.size(); j++) {
-                View viewToPlace = childArrayForDay.get(j);
-                if (viewToPlace.getVisibility() != GONE) {
+        applyCollapseGeometry();
+    }
 
-                    // If we overflow the cell, crop the view
-                    int proposedItemBottom = (int) (mDayCells[i].top + topOffset + viewToPlace.getMeasuredHeight());
-                    if (proposedItemBottom >= cellBottom) {
-                        proposedItemBottom = cellBottom;
-                    }
+    @Override
+    protected void layoutCell(int cellNumber) {
+        mChildHitIndex.clearCell(cellNumber);
+        mCellsWithOverflow.remove(Integer.valueOf(cellNumber));
+
+        // Cells might be moved up by the collapse, children go where they'd be expanded
+        float cellTop = mDayCells[cellNumber].top + mCollapseOffset;
+        float topOffset = cellNumber < DAYS_IN_WEEK ? mEndOfHeaderWithWeekday : mEndOfHeaderWithoutWeekday;
+        int cellBottom = (int) (mDayCells[cellNumber].bottom + mCollapseOffset - mOverflowHeight);
+        int slot = getSlotForCell(cellNumber);
+        for (int j = 0; j < mChildInDays.getCount(slot); j++) {
+            View viewToPlace = mChildInDays.get(slot, j);
+            if (viewToPlace.getVisibility() != GONE) {
+
+                // If we overflow the cell, crop the view
+                int proposedItemBottom = (int) (cellTop + topOffset + viewToPlace.getMeasuredHeight());
+                if (proposedItemBottom >= cellBottom) {
+                    proposedItemBottom = cellBottom;
+                } else if (viewToPlace.getVisibility() == VISIBLE) {
+                    // Only whole views can be tapped
+                    mChildHitIndex.add(cellNumber, (int) (cellTop + topOffset), proposedItemBottom, viewToPlace);
+                }
 
-                    viewToPlace.layout(
-                            (int) mDayCells[i].left,
-                            (int) (mDayCells[i].top + topOffset),
-                            (int) mDayCells[i].right,
-                            proposedItemBottom
-                    );
+                viewToPlace.layout(
+                        (int) mDayCells[cellNumber].left,
+                        (int) (cellTop + topOffset),
+                        (int) mDayCells[cellNumber].right,
+                        proposedItemBottom
+                );
 
-                    topOffset += viewToPlace.getMeasuredHeight();
+                topOffset += viewToPlace.getMeasuredHeight();
 
-                    // If we don't have more space below, stop drawing them
-                    if (proposedItemBottom == cellBottom) {
-                        mCellsWithOverflow.add(i);
-                        break;
-                    }
+                // If we don't have more space below, stop drawing them
+                if (proposedItemBottom == cellBottom) {
+                    mCellsWithOverflow.add(cellNumber);
+                    break;
                 }
             }
         }
     }
 
-    protected void drawBackgroundForCell(Canvas canvas, int cellNumber, RectF[] dayCells,
+    @Override
+    protected boolean moveChildBetweenCells(View child, int fromCell, int toCell) {
+        if (fromCell < 0 || fromCell >= DAYS_IN_GRID || toCell < 0 || toCell >= DAYS_IN_GRID) return false;
+        if (!mChildInDays.remove(getSlotForCell(fromCell), child)) return false;
+
+        mChildInDays.add(getSlotForCell(toCell), child);
+        return true;
+    }
+
+    protected void drawBackgroundForCell(CalendarRenderer renderer, int cellNumber, RectF[] dayCells,
                                          boolean selected,
                                          Paint selectedBackgroundColor,
                                          Paint backgroundColor) {
         // Just paint with the correct color if we are ignoring the material guidelines
         if (mIgnoreMaterialGrid) {
-            canvas.drawRect(dayCells[cellNumber].left,
+            renderer.drawRect(dayCells[cellNumber].left,
                     dayCells[cellNumber].top,
                     dayCells[cellNumber].right,
                     dayCells[cellNumber].bottom,
@@ -448,7 +671,7 @@ public class MonthView extends CalendarView implements GestureDetector.OnGesture
         float additionalRight = cellMod == 6 ? mMaterialLeftRightPadding : 0;
 
         // Just paint unselected
-        canvas.drawRect(dayCells[cellNumber].left + additionalLeft,
+        renderer.drawRect(dayCells[cellNumber].left + additionalLeft,
                 dayCells[cellNumber].top,
                 dayCells[cellNumber].right + additionalRight,
                 dayCells[cellNumber].bottom, backgroundColor);
@@ -456,60 +679,144 @@ public class MonthView extends CalendarView implements GestureDetector.OnGesture
         // And then the selection with padding to the background (so the background shows on the
         // left and right extremes):
         if (selected) {
-            canvas.drawRect(dayCells[cellNumber].left,
+            renderer.drawRect(dayCells[cellNumber].left,
                     dayCells[cellNumber].top,
                     dayCells[cellNumber].right,
                     dayCells[cellNumber].bottom, selectedBackgroundColor);
         }
     }
 
-    protected void drawBackgrounds(Canvas canvas, RectF[] dayCells,
-                                   int firstActiveCell, int lastActiveCell) {
-        int activationRow = firstActiveCell / DAYS_IN_WEEK;
-        int deactivationRow = lastActiveCell / DAYS_IN_WEEK;
-
-        for (int row = 0; row < dayCells.length / DAYS_IN_WEEK; row++) {
+    // Selection over the backgrounds, blended once so every pixel is filled a single time
+    final Paint mSelectedOverActiveColor = new Paint();
+    final Paint mSelectedOverInactiveColor = new Paint();
+
+    /**
+     * Fills the backgrounds of the active, inactive and selected cells without overlapping:
+     * each row is drawn as runs of cells of the same color, plus the material padding on the sides
+     */
+    protected void drawBackgrounds(CalendarRenderer renderer, RectF[] dayCells,
+                                   int firstActiveCell, int lastActiveCell,
+                                   int selectedCell, long selectedCells) {
+        mSelectedOverActiveColor.setColor(blendOver(mSelectedBackgroundColor.getColor(),
+                mActiveBackgroundColor.getColor()));
+        mSelectedOverInactiveColor.setColor(blendOver(mSelectedBackgroundColor.getColor(),
+                mInactiveBackgroundColor.getColor()));
+
+        int rowCount = dayCells.length / DAYS_IN_WEEK;
+        for (int row = 0; row < rowCount; row++) {
             int firstCellInRow = row * DAYS_IN_WEEK;
             int lastCellInRow = firstCellInRow + (DAYS_IN_WEEK - 1);
-            if (row == activationRow) {
-                // If there is at least one inactive cell in the row, skip that block
-                drawBlock(canvas, mActiveBackgroundColor,
-                            firstActiveCell > firstCellInRow ? BLOCK.RIGHT : BLOCK.COMPLETE,
-                        dayCells[firstActiveCell].left,
-                        dayCells[firstCellInRow].top,
-                        dayCells[lastCellInRow].right,
-                        dayCells[lastCellInRow].bottom);
-            } else if (row < deactivationRow) { // Whole active row
-                drawBlock(canvas, mActiveBackgroundColor, BLOCK.COMPLETE,
-                        dayCells[firstCellInRow].left, dayCells[firstCellInRow].top,
-                        dayCells[lastCellInRow].right, dayCells[lastCellInRow].bottom);
-            } else if (row == deactivationRow) {
-                // If there is at least one active cell in the row, draw that block
-                boolean anyActive = lastActiveCell >= firstCellInRow;
-                if (anyActive) {
-                    drawBlock(canvas, mActiveBackgroundColor, BLOCK.LEFT,
-                            dayCells[firstCellInRow].left,
-                            dayCells[firstCellInRow].top,
-                            dayCells[lastActiveCell].right,
-                            dayCells[lastCellInRow].bottom);
+            float top = dayCells[firstCellInRow].top;
+            float bottom = dayCells[firstCellInRow].bottom;
+            if (bottom <= 0 || top >= getHeight()) continue; // Moved out by the collapse
+
+            // Material padding takes the color of the cell next to it, without the selection
+            if (dayCells[firstCellInRow].left > 0) {
+                renderer.drawRect(0, top, dayCells[firstCellInRow].left, bottom,
+                        isCellActive(firstCellInRow, firstActiveCell, lastActiveCell) ?
+                                mActiveBackgroundColor : mInactiveBackgroundColor);
+            }
+            if (dayCells[lastCellInRow].right < getWidth()) {
+                renderer.drawRect(dayCells[lastCellInRow].right, top, getWidth(), bottom,
+                        isCellActive(lastCellInRow, firstActiveCell, lastActiveCell) ?
+                                mActiveBackgroundColor : mInactiveBackgroundColor);
+            }
+
+            int runStart = firstCellInRow;
+            Paint runColor = getCellBackground(firstCellInRow, firstActiveCell, lastActiveCell,
+                    selectedCell, selectedCells);
+            for (int cell = firstCellInRow + 1; cell <= lastCellInRow + 1; cell++) {
+                Paint color = cell > lastCellInRow ? null : getCellBackground(cell,
+                        firstActiveCell, lastActiveCell, selectedCell, selectedCells);
+                if (color != runColor) {
+                    renderer.drawRect(dayCells[runStart].left, top, dayCells[cell - 1].right, bottom, runColor);
+                    runStart = cell;
+                    runColor = color;
                 }
             }
         }
+
+        // Anything the rows don't reach
+        float lastBottom = dayCells[dayCells.length - 1].bottom;
+        if (lastBottom < getHeight()) {
+            renderer.drawRect(0, Math.max(lastBottom, 0), getWidth(), getHeight(), mInactiveBackgroundColor);
+        }
+    }
+
+    private static boolean isCellActive(int cell, int firstActiveCell, int lastActiveCell) {
+        return cell >= firstActiveCell && cell <= lastActiveCell;
+    }
+
+    private Paint getCellBackground(int cell, int firstActiveCell, int lastActiveCell,
+                                    int selectedCell, long selectedCells) {
+        boolean active = isCellActive(cell, firstActiveCell, lastActiveCell);
+        if (cell == selectedCell || (cell < MAX_SELECTABLE_CELLS && (selectedCells & (1L << cell)) != 0)) {
+            return active ? mSelectedOverActiveColor : mSelectedOverInactiveColor;
+        }
+        return active ? mActiveBackgroundColor : mInactiveBackgroundColor;
+    }
+
+    /**
+     * The color of drawing source over destination, what layering them used to do
+     */
+    static int blendOver(int source, int destination) {
+        int sourceAlpha = Color.alpha(source);
+        if (sourceAlpha == 255) return source;
+
+        int destinationAlpha = Color.alpha(destination) * (255 - sourceAlpha) / 255;
+        int alpha = sourceAlpha + destinationAlpha;
+        if (alpha == 0) return Color.TRANSPARENT;
+
+        return Color.argb(alpha,
+                (Color.red(source) * sourceAlpha + Color.red(destination) * destinationAlpha) / alpha,
+                (Color.green(source) * sourceAlpha + Color.green(destination) * destinationAlpha) / alpha,
+                (Color.blue(source) * sourceAlpha + Color.blue(destination) * destinationAlpha) / alpha);
     }
 
     @Override
-    protected void onDraw(Canvas canvas) {
-        super.onDraw(canvas);
+    protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+        if (mCollapseProgress == 0) {
+            return super.drawChild(canvas, child, drawingTime);
+        }
 
-        if (getWidth() == 0 || getHeight() == 0) return; // Never got measured, nothing to draw
+        // Hidden rows go under the weekdays and below the visible height
+        int saveCount = canvas.save();
+        canvas.clipRect(0, mCollapseOffset > 0 ? getFirstRowExtraHeight() : 0, getWidth(), mVisibleHeight);
+        boolean result = super.drawChild(canvas, child, drawingTime);
+        canvas.restoreToCount(saveCount);
+        return result;
+    }
 
-        canvas.drawPaint(mInactiveBackgroundColor);
+    @Override
+    protected void drawCalendar(CalendarRenderer renderer) {
+        if (mCollapseProgress == 0) {
+            drawMonth(renderer);
+            return;
+        }
 
-        int lastCellOfMonth = mFirstCellOfMonth + mLastDayOfMonth - 1;
-        drawBackgrounds(canvas, mDayCells, mFirstCellOfMonth, lastCellOfMonth);
-        drawSelectedCell(canvas, mDayCells, mSelectedDay == INITIAL ? INITIAL :
-                mSelectedDay + mFirstCellOfMonth - 1);
+        // Rows, moved up and cut at the visible height
+        int saveCount = renderer.save();
+        renderer.clipRect(0, mCollapseOffset > 0 ? getFirstRowExtraHeight() : 0, getWidth(), mVisibleHeight);
+        drawMonth(renderer);
+        renderer.restoreToCount(saveCount);
+
+        // While the weekdays stay in place
+        if (mCollapseOffset > 0) {
+            saveCount = renderer.save();
+            renderer.clipRect(0, 0, getWidth(), getFirstRowExtraHeight());
+            setCellGeometry(0);
+            drawMonth(renderer);
+            setCellGeometry(mCollapseOffset);
+            renderer.restoreToCount(saveCount);
+        }
+    }
 
+    protected void drawMonth(CalendarRenderer renderer) {
+        int lastCellOfMonth = mFirstCellOfMonth + mLastDayOfMonth - 1;
+        drawBackgrounds(renderer, mDayCells, mFirstCellOfMonth, lastCellOfMonth,
+                mSelectedDay == INITIAL ? INITIAL : mSelectedDay + mFirstCellOfMonth - 1,
+                mSelectedCells);
+        drawDropTarget(renderer, mDayCells);
 
         // Weekdays and day numbers
         for (int i = 0; i < DAYS_IN_GRID; i++) {
@@ -523,40 +830,38 @@ public class MonthView extends CalendarView implements GestureDetector.OnGesture
                     if (i < DAYS_IN_WEEK) {
                         topOffset += mBetweenSiblingsPadding + mSingleLetterHeight;
                     }
-                    mCurrentDayDrawable.setBounds(
+                    renderer.drawDrawable(mCurrentDayDrawable,
                             (int) (mDayCells[i].left + mBetweenSiblingsPadding),
                             (int) (mDayCells[i].top + topOffset),
                             (int) (mDayCells[i].left + mBetweenSiblingsPadding + mDecorationSize),
                             (int) (mDayCells[i].top + mDecorationSize + topOffset));
-                    mCurrentDayDrawable.draw(canvas);
 
-                    drawDayTextsInCell(canvas, i, mDayCells, mCurrentDayTextColor, mActiveTextColor, mDayNumbers);
+                    drawDayTextsInCell(renderer, i, mDayCells, mCurrentDayTextColor, mActiveTextColor, mDayNumbers);
                 } else {
-                    drawDayTextsInCell(canvas, i, mDayCells, mActiveTextColor, mActiveTextColor, mDayNumbers);
+                    drawDayTextsInCell(renderer, i, mDayCells, mActiveTextColor, mActiveTextColor, mDayNumbers);
                 }
             } else { // Cell not in month
-                drawDayTextsInCell(canvas, i, mDayCells, mInactiveTextColor, mInactiveTextColor, mDayNumbers);
+                drawDayTextsInCell(renderer, i, mDayCells, mInactiveTextColor, mInactiveTextColor, mDayNumbers);
             }
         }
 
-        drawOverflow(canvas, mCellsWithOverflow, mDayCells);
-
-        // Separation lines
-        canvas.drawLine(0, mDayCells[7].top, getWidth(), mDayCells[7].top, mSeparationPaint);
-        canvas.drawLine(0, mDayCells[14].top, getWidth(), mDayCells[14].top, mSeparationPaint);
-        canvas.drawLine(0, mDayCells[21].top, getWidth(), mDayCells[21].top, mSeparationPaint);
-        canvas.drawLine(0, mDayCells[28].top, getWidth(), mDayCells[28].top, mSeparationPaint);
-        canvas.drawLine(0, mDayCells[35].top, getWidth(), mDayCells[35].top, mSeparationPaint);
-
-        drawVerticalSeparation(canvas, mDayCells);
+        drawOverflow(renderer, mCellsWithOverflow, mDayCells);
+        drawMarkers(renderer, mDayCells);
+
+        // Separation lines, all in one batch
+        int count = 0;
+        for (int row = 1; row < ROWS; row++) {
+            float top = mDayCells[row * DAYS_IN_WEEK].top;
+            mSeparatorLines[count++] = 0;
+            mSeparatorLines[count++] = top;
+            mSeparatorLines[count++] = getWidth();
+            mSeparatorLines[count++] = top;
+        }
+        count = addVerticalSeparation(mSeparatorLines, count, mDayCells);
+        renderer.drawLines(mSeparatorLines, count, mSeparationPaint);
     }
 
     // Interaction
-    @Override
-    public boolean onTouchEvent(MotionEvent event) {
-        return mDetector.onTouchEvent(event);
-    }
-
     @Override
     public boolean onInterceptTouchEvent(MotionEvent ev) {
         return true;
@@ -564,48 +869,60 @@ public class MonthView extends CalendarView implements GestureDetector.OnGesture
 
     @Override
     public boolean onDown(MotionEvent e) {
+        startRangeSelection(e);
         return true;
     }
 
+    @Override
+    protected float getChildLayoutOffset() {
+        return mCollapseOffset;
+    }
+
+    @Override
+    public int getCellNumberFromLocation(float x, float y) {
+        // Hidden rows can't be touched while collapsed
+        if (mCollapseProgress > 0 &&
+                ((mCollapseOffset > 0 && y < getFirstRowExtraHeight()) || y > mVisibleHeight)) {
+            return INITIAL;
+        }
+        return super.getCellNumberFromLocation(x, y);
+    }
+
     public int getCellFromLocation(float x, float y) {
-        for (int i = 0; i < mDayCells.length; i++) {
-            if (mDayCells[i].contains(x, y)) {
-                if (i >= mFirstCellOfMonth &&
-                        i <= mFirstCellOfMonth + mLastDayOfMonth - 1) {
-                    return i - mFirstCellOfMonth + 1;
-                } else {
-                    return INITIAL;
-                }
-            }
+        int i = getCellNumberFromLocation(x, y);
+        if (i >= mFirstCellOfMonth &&
+                i <= mFirstCellOfMonth + mLastDayOfMonth - 1) {
+            return i - mFirstCellOfMonth + 1;
         }
         return INITIAL;
     }
 
     @Override
     public boolean onSingleTapUp(MotionEvent e) {
-        if (mDaySelectionListener != null) {
-            int currentDay = getCellFromLocation(e.getX(), e.getY());
-            if (currentDay != INITIAL) {
-                mDaySelectionListener.onTapEnded(this, new DayMetadata(mYear, mMonth + 1, currentDay));
-                return true;
-            }
+        if (notifyChildTapped(e.getX(), e.getY())) return true;
+
+        toggleMultipleSelection(e);
+
+        int currentDay = getCellFromLocation(e.getX(), e.getY());
+        if (currentDay != INITIAL) {
+            return notifyTapEnded(mFirstCellOfMonth + currentDay - 1);
         }
         return false;
     }
 
     @Override
     public void onLongPress(MotionEvent e) {
-        if (mDaySelectionListener != null) {
-            int currentDay = getCellFromLocation(e.getX(), e.getY());
-            if (currentDay != INITIAL) {
-                mDaySelectionListener.onLongClick(this, new DayMetadata(mYear, mMonth + 1, currentDay));
-            }
+        if (startChildDrag(e)) return;
+
+        int currentDay = getCellFromLocation(e.getX(), e.getY());
+        if (currentDay != INITIAL) {
+            notifyLongClick(mFirstCellOfMonth + currentDay - 1);
         }
     }
 
     @Override
     public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
-        return false;
+        return extendRangeSelection(e2);
     }
 
     @Override
@@ -629,6 +946,9 @@ public class MonthView extends CalendarView implements GestureDetector.OnGesture
         myOwnState.mSelectedDay = mSelectedDay;
         myOwnState.mLastKnownWidth = mLastKnownWidth;
         myOwnState.mLastKnownHeight = mLastKnownHeight;
+        myOwnState.mCollapseProgress = mCollapseProgress;
+        myOwnState.mCollapsedRow = mCollapsedRow;
+        myOwnState.mContentSnapshot = createContentSnapshot();
         return myOwnState;
     }
 
@@ -648,6 +968,11 @@ public class MonthView extends CalendarView implements GestureDetector.OnGesture
         mLastKnownWidth = myOwnState.mLastKnownWidth;
         mLastKnownHeight = myOwnState.mLastKnownHeight;
         recalculateCells(mLastKnownWidth, mLastKnownHeight, mDayCells, ROWS);
+        saveExpandedGeometry();
+        mCollapsedRow = myOwnState.mCollapsedRow;
+        mCollapseProgress = myOwnState.mCollapseProgress;
+        applyCollapseGeometry();
+        restoreContentSnapshot(myOwnState.mContentSnapshot);
     }
 
     private static class MyOwnState extends BaseSavedState {
@@ -657,6 +982,9 @@ public class MonthView extends CalendarView implements GestureDetector.OnGesture
         int mMonth;
         int mLastKnownWidth;
         int mLastKnownHeight;
+        ContentSnapshot mContentSnapshot;
+        float mCollapseProgress;
+        int mCollapsedRow;
 
         MyOwnState(Parcelable superState) {
             super(superState);
@@ -670,6 +998,9 @@ public class MonthView extends CalendarView implements GestureDetector.OnGesture
             mSelectedDay = in.readInt();
             mLastKnownWidth = in.readInt();
             mLastKnownHeight = in.readInt();
+            mCollapseProgress = in.readFloat();
+            mCollapsedRow = in.readInt();
+            mContentSnapshot = in.readParcelable(ContentSnapshot.class.getClassLoader());
         }
 
         @Override
@@ -681,6 +1012,9 @@ public class MonthView extends CalendarView implements GestureDetector.OnGesture
             out.writeInt(mSelectedDay);
             out.writeInt(mLastKnownWidth);
             out.writeInt(mLastKnownHeight);
+            out.writeFloat(mCollapseProgress);
+            out.writeInt(mCollapsedRow);
+            out.writeParcelable(mContentSnapshot, flags);
         }
 
         public static final Parcelable.Creator<MyOwnState> CREATOR =
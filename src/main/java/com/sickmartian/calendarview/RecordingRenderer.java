@@ -0,0 +1,143 @@
+package com.sickmartian.calendarview;
+
+import android.graphics.Paint;
+import android.graphics.drawable.Drawable;
+
+import java.util.Arrays;
+
+/**
+ * Draws nothing, counts the operations and how much area they cover, to check what a view
+ * draws for a frame. Overdraw is the area covered by fills over the area of the view:
+ * 1 means every pixel was filled once on average.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class RecordingRenderer implements CalendarRenderer {
+
+    public static final int PAINT = 0;
+    public static final int RECT = 1;
+    public static final int LINE = 2;
+    public static final int CIRCLE = 3;
+    public static final int TEXT = 4;
+    public static final int DRAWABLE = 5;
+    private static final int OPERATION_TYPES = 6;
+
+    private final float mWidth;
+    private final float mHeight;
+    private final int[] mOperationCounts = new int[OPERATION_TYPES];
+    private double mFilledArea;
+
+    // Clips, only rectangles, intersected
+    private float[] mClips = new float[4 * 8];
+    private int mClipCount;
+
+    public RecordingRenderer(int width, int height) {
+        mWidth = width;
+        mHeight = height;
+        reset();
+    }
+
+    public void reset() {
+        for (int i = 0; i < OPERATION_TYPES; i++) {
+            mOperationCounts[i] = 0;
+        }
+        mFilledArea = 0;
+        mClipCount = 1;
+        mClips[0] = 0;
+        mClips[1] = 0;
+        mClips[2] = mWidth;
+        mClips[3] = mHeight;
+    }
+
+    public int getOperationCount(int type) {
+        return mOperationCounts[type];
+    }
+
+    public int getOperationCount() {
+        int count = 0;
+        for (int i = 0; i < OPERATION_TYPES; i++) {
+            count += mOperationCounts[i];
+        }
+        return count;
+    }
+
+    public double getFilledArea() {
+        return mFilledArea;
+    }
+
+    public double getOverdraw() {
+        return mWidth * mHeight == 0 ? 0 : mFilledArea / (mWidth * mHeight);
+    }
+
+    private void fill(float left, float top, float right, float bottom) {
+        // Only what is inside the current clip gets drawn
+        int clip = (mClipCount - 1) * 4;
+        float width = Math.min(right, mClips[clip + 2]) - Math.max(left, mClips[clip]);
+        float height = Math.min(bottom, mClips[clip + 3]) - Math.max(top, mClips[clip + 1]);
+        if (width > 0 && height > 0) {
+            mFilledArea += width * height;
+        }
+    }
+
+    @Override
+    public void drawPaint(Paint paint) {
+        mOperationCounts[PAINT]++;
+        fill(0, 0, mWidth, mHeight);
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+        mOperationCounts[RECT]++;
+        fill(left, top, right, bottom);
+    }
+
+    @Override
+    public void drawLine(float startX, float startY, float stopX, float stopY, Paint paint) {
+        mOperationCounts[LINE]++;
+    }
+
+    @Override
+    public void drawLines(float[] points, int count, Paint paint) {
+        // A batch is a single operation, that's the point of it
+        if (count >= 4) mOperationCounts[LINE]++;
+    }
+
+    @Override
+    public void drawCircle(float centerX, float centerY, float radius, Paint paint) {
+        mOperationCounts[CIRCLE]++;
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, Paint paint) {
+        mOperationCounts[TEXT]++;
+    }
+
+    @Override
+    public void drawDrawable(Drawable drawable, int left, int top, int right, int bottom) {
+        mOperationCounts[DRAWABLE]++;
+        fill(left, top, right, bottom);
+    }
+
+    @Override
+    public int save() {
+        if (mClipCount * 4 == mClips.length) {
+            mClips = Arrays.copyOf(mClips, mClips.length * 2);
+        }
+        int clip = (mClipCount - 1) * 4;
+        System.arraycopy(mClips, clip, mClips, clip + 4, 4);
+        return mClipCount++;
+    }
+
+    @Override
+    public void clipRect(float left, float top, float right, float bottom) {
+        int clip = (mClipCount - 1) * 4;
+        mClips[clip] = Math.max(mClips[clip], left);
+        mClips[clip + 1] = Math.max(mClips[clip + 1], top);
+        mClips[clip + 2] = Math.min(mClips[clip + 2], right);
+        mClips[clip + 3] = Math.min(mClips[clip + 3], bottom);
+    }
+
+    @Override
+    public void restoreToCount(int saveCount) {
+        mClipCount = Math.max(1, Math.min(saveCount, mClipCount));
+    }
+}
@@ -0,0 +1,210 @@
+package com.sickmartian.calendarview;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Color;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Last rendered frames of calendar views, compressed under the cache directory of the app,
+ * so a view can show what it looked like before while its content is loaded again.
+ * Reading and writing happens on a background thread, and the least recently used frames
+ * are deleted when the directory goes over the size budget.
+ * One instance can (and should) be shared by every view.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class RenderCache {
+
+    public static final long DEFAULT_MAX_BYTES = 4 * 1024 * 1024;
+    private static final String DIRECTORY = "calendarview-frames";
+    private static final String EXTENSION = ".png";
+    private static final String TAG = "RenderCache";
+    // Enough for a view being saved while another one captures
+    private static final int MAX_POOLED_FRAMES = 2;
+
+    public interface Callback {
+        /**
+         * Called on the main thread, with a null frame if there was none for the key
+         */
+        void onFrameLoaded(String key, Bitmap frame);
+    }
+
+    private static final Comparator<File> NEWEST_FIRST = new Comparator<File>() {
+        @Override
+        public int compare(File lhs, File rhs) {
+            long lhsModified = lhs.lastModified();
+            long rhsModified = rhs.lastModified();
+            return lhsModified > rhsModified ? -1 : (lhsModified == rhsModified ? 0 : 1);
+        }
+    };
+
+    private final File mDirectory;
+    private final long mMaxBytes;
+    private final ExecutorService mExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final ArrayList<Bitmap> mPooledFrames = new ArrayList<>();
+
+    public RenderCache(Context context) {
+        this(context, DEFAULT_MAX_BYTES);
+    }
+
+    public RenderCache(Context context, long maxBytes) {
+        mDirectory = new File(context.getCacheDir(), DIRECTORY);
+        mMaxBytes = maxBytes;
+    }
+
+    public void get(final String key, final Callback callback) {
+        if (key == null || callback == null) return;
+
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                File file = getFile(key);
+                Bitmap bitmap = null;
+                if (file.exists()) {
+                    bitmap = BitmapFactory.decodeFile(file.getPath());
+                    // Mark as recently used
+                    file.setLastModified(System.currentTimeMillis());
+                }
+
+                final Bitmap frame = bitmap;
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onFrameLoaded(key, frame);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * A cleared bitmap to draw a frame on, reusing one already written when it has the same size
+     */
+    public Bitmap obtainFrame(int width, int height) {
+        synchronized (mPooledFrames) {
+            for (int i = 0; i < mPooledFrames.size(); i++) {
+                Bitmap frame = mPooledFrames.get(i);
+                if (frame.getWidth() == width && frame.getHeight() == height) {
+                    mPooledFrames.remove(i);
+                    frame.eraseColor(Color.TRANSPARENT);
+                    return frame;
+                }
+            }
+        }
+        return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    }
+
+    /**
+     * Gives back a frame from {@link #obtainFrame(int, int)} that won't be stored
+     */
+    public void recycleFrame(Bitmap frame) {
+        if (frame == null || frame.isRecycled()) return;
+
+        synchronized (mPooledFrames) {
+            if (mPooledFrames.size() < MAX_POOLED_FRAMES) {
+                mPooledFrames.add(frame);
+                return;
+            }
+        }
+        frame.recycle();
+    }
+
+    /**
+     * Stores the frame, the cache takes ownership of the bitmap and reuses it once written
+     */
+    public void put(final String key, final Bitmap frame) {
+        if (key == null || frame == null) return;
+
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (!mDirectory.exists() && !mDirectory.mkdirs()) {
+                    recycleFrame(frame);
+                    return;
+                }
+
+                // Written aside first, so a frame is never read half written
+                File file = getFile(key);
+                File temporaryFile = new File(mDirectory, key + ".tmp");
+                FileOutputStream out = null;
+                try {
+                    out = new FileOutputStream(temporaryFile);
+                    frame.compress(Bitmap.CompressFormat.PNG, 100, out);
+                    out.close();
+                    out = null;
+                    if (!temporaryFile.renameTo(file)) {
+                        temporaryFile.delete();
+                    }
+                } catch (IOException e) {
+                    Log.w(TAG, "Couldn't write frame " + key, e);
+                    temporaryFile.delete();
+                } finally {
+                    if (out != null) {
+                        try {
+                            out.close();
+                        } catch (IOException ignored) {
+                        }
+                    }
+                    recycleFrame(frame);
+                }
+
+                trim();
+            }
+        });
+    }
+
+    public void remove(final String key) {
+        if (key == null) return;
+
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                getFile(key).delete();
+            }
+        });
+    }
+
+    public void clear() {
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                File[] files = mDirectory.listFiles();
+                if (files == null) return;
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+        });
+    }
+
+    private void trim() {
+        File[] files = mDirectory.listFiles();
+        if (files == null) return;
+
+        Arrays.sort(files, NEWEST_FIRST);
+        long usedBytes = 0;
+        for (File file : files) {
+            usedBytes += file.length();
+            if (usedBytes > mMaxBytes) {
+                file.delete();
+            }
+        }
+    }
+
+    private File getFile(String key) {
+        return new File(mDirectory, key + EXTENSION);
+    }
+}
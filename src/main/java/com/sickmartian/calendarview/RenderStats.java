@@ -0,0 +1,148 @@
+package com.sickmartian.calendarview;
+
+/**
+ * Counts the measure, layout and draw passes of the views it is set on, and the bytes the
+ * calling thread allocates, between {@link #startOperation()} and {@link #endOperation()}.
+ * Meant for tests and benchmark runs, to check operations like paging, selecting or loading
+ * content against a {@link Budget} and fail when they regress.
+ * Draws are counted for every {@link CalendarView#render(CalendarRenderer)}, so a frame can be
+ * rendered into a {@link RecordingRenderer} where there is no screen.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class RenderStats {
+
+    public static final long NOT_COUNTED = -1;
+
+    /**
+     * Source of the bytes allocated by the current thread so far. Android has no reliable one,
+     * on a JVM (like Robolectric tests) com.sun.management.ThreadMXBean#getThreadAllocatedBytes is.
+     */
+    public interface AllocationCounter {
+        long getAllocatedBytes();
+    }
+
+    public static class Budget {
+        public static final int UNLIMITED = Integer.MAX_VALUE;
+
+        /**
+         * A frame of an already laid out view: a draw and nothing else
+         */
+        public static final Budget FRAME = new Budget(0, 0, 1, 0);
+
+        /**
+         * Selecting days only redraws
+         */
+        public static final Budget SELECTION = new Budget(0, 0, 1, 0);
+
+        /**
+         * Moving to other days or loading content can measure and lay out once
+         */
+        public static final Budget PAGING = new Budget(1, 1, 1, UNLIMITED);
+
+        public final int maxMeasures;
+        public final int maxLayouts;
+        public final int maxDraws;
+        public final long maxAllocatedBytes;
+
+        public Budget(int maxMeasures, int maxLayouts, int maxDraws, long maxAllocatedBytes) {
+            this.maxMeasures = maxMeasures;
+            this.maxLayouts = maxLayouts;
+            this.maxDraws = maxDraws;
+            this.maxAllocatedBytes = maxAllocatedBytes;
+        }
+    }
+
+    public static class Sample {
+        public final int measures;
+        public final int layouts;
+        public final int draws;
+        public final long allocatedBytes;
+
+        Sample(int measures, int layouts, int draws, long allocatedBytes) {
+            this.measures = measures;
+            this.layouts = layouts;
+            this.draws = draws;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public boolean isWithin(Budget budget) {
+            return measures <= budget.maxMeasures &&
+                    layouts <= budget.maxLayouts &&
+                    draws <= budget.maxDraws &&
+                    (allocatedBytes == NOT_COUNTED || allocatedBytes <= budget.maxAllocatedBytes);
+        }
+
+        @Override
+        public String toString() {
+            return "measures: " + measures + " layouts: " + layouts +
+                    " draws: " + draws + " allocated bytes: " +
+                    (allocatedBytes == NOT_COUNTED ? "not counted" : Long.toString(allocatedBytes));
+        }
+    }
+
+    int mMeasures;
+    int mLayouts;
+    int mDraws;
+    AllocationCounter mAllocationCounter;
+    long mStartAllocatedBytes;
+    long mCounterOverhead;
+
+    public RenderStats() {
+    }
+
+    public RenderStats(AllocationCounter allocationCounter) {
+        mAllocationCounter = allocationCounter;
+    }
+
+    /**
+     * Without a counter the allocations are {@link #NOT_COUNTED} and budgets only check passes
+     */
+    public void setAllocationCounter(AllocationCounter allocationCounter) {
+        mAllocationCounter = allocationCounter;
+    }
+
+    void onMeasure() {
+        mMeasures++;
+    }
+
+    void onLayout() {
+        mLayouts++;
+    }
+
+    void onDraw() {
+        mDraws++;
+    }
+
+    public void startOperation() {
+        mMeasures = 0;
+        mLayouts = 0;
+        mDraws = 0;
+
+        if (mAllocationCounter != null) {
+            // Whatever reading the counter costs is not part of the operation
+            long before = mAllocationCounter.getAllocatedBytes();
+            mStartAllocatedBytes = mAllocationCounter.getAllocatedBytes();
+            mCounterOverhead = mStartAllocatedBytes - before;
+        }
+    }
+
+    public Sample endOperation() {
+        long allocatedBytes = NOT_COUNTED;
+        if (mAllocationCounter != null) {
+            allocatedBytes = Math.max(0,
+                    mAllocationCounter.getAllocatedBytes() - mStartAllocatedBytes - mCounterOverhead);
+        }
+        return new Sample(mMeasures, mLayouts, mDraws, allocatedBytes);
+    }
+
+    /**
+     * Ends the operation and throws if it went over the budget
+     */
+    public Sample endOperation(String operation, Budget budget) {
+        Sample sample = endOperation();
+        if (!sample.isWithin(budget)) {
+            throw new IllegalStateException(operation + " went over its budget, " + sample);
+        }
+        return sample;
+    }
+}
@@ -0,0 +1,203 @@
+package com.sickmartian.calendarview;
+
+import android.graphics.Paint;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+
+import java.util.Arrays;
+
+/**
+ * Writes what a view draws as an SVG document, for places where there is no screen,
+ * like an email digest. Children aren't included, use markers for content that has to show.
+ * Drawables other than colors can't be translated, they are written as a circle filling
+ * their bounds, which is what the current day decoration usually is.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class SvgRenderer implements CalendarRenderer {
+
+    private final StringBuilder mSvg = new StringBuilder();
+    private final int mWidth;
+    private final int mHeight;
+    private int mDecorationColor = 0xFF9E9E9E;
+    private int mClipIds;
+
+    // Groups opened by clips on every save level
+    private int[] mOpenGroups = new int[8];
+    private int mSaveCount = 1;
+
+    public SvgRenderer(int width, int height) {
+        mWidth = width;
+        mHeight = height;
+        mSvg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(width)
+                .append("\" height=\"").append(height)
+                .append("\" viewBox=\"0 0 ").append(width).append(' ').append(height).append("\">\n");
+    }
+
+    public void setDecorationColor(int decorationColor) {
+        mDecorationColor = decorationColor;
+    }
+
+    /**
+     * Closes the document, nothing else can be drawn after this
+     */
+    public String finish() {
+        restoreToCount(1);
+        closeGroups(0);
+        mSvg.append("</svg>\n");
+        return mSvg.toString();
+    }
+
+    @Override
+    public void drawPaint(Paint paint) {
+        drawRect(0, 0, mWidth, mHeight, paint);
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+        mSvg.append("<rect x=\"").append(left).append("\" y=\"").append(top)
+                .append("\" width=\"").append(right - left).append("\" height=\"").append(bottom - top).append('"');
+        appendPaint(paint);
+        mSvg.append("/>\n");
+    }
+
+    @Override
+    public void drawLine(float startX, float startY, float stopX, float stopY, Paint paint) {
+        mSvg.append("<line x1=\"").append(startX).append("\" y1=\"").append(startY)
+                .append("\" x2=\"").append(stopX).append("\" y2=\"").append(stopY).append('"');
+        appendColor("stroke", paint.getColor());
+        mSvg.append(" stroke-width=\"").append(Math.max(paint.getStrokeWidth(), 1)).append("\"/>\n");
+    }
+
+    @Override
+    public void drawLines(float[] points, int count, Paint paint) {
+        if (count < 4) return;
+
+        mSvg.append("<path d=\"");
+        for (int i = 0; i + 3 < count; i += 4) {
+            mSvg.append('M').append(points[i]).append(' ').append(points[i + 1])
+                    .append('L').append(points[i + 2]).append(' ').append(points[i + 3]);
+        }
+        mSvg.append('"');
+        appendColor("stroke", paint.getColor());
+        mSvg.append(" stroke-width=\"").append(Math.max(paint.getStrokeWidth(), 1)).append("\"/>\n");
+    }
+
+    @Override
+    public void drawCircle(float centerX, float centerY, float radius, Paint paint) {
+        mSvg.append("<circle cx=\"").append(centerX).append("\" cy=\"").append(centerY)
+                .append("\" r=\"").append(radius).append('"');
+        appendPaint(paint);
+        mSvg.append("/>\n");
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, Paint paint) {
+        mSvg.append("<text x=\"").append(x).append("\" y=\"").append(y)
+                .append("\" font-family=\"sans-serif\" font-size=\"").append(paint.getTextSize()).append('"');
+        Paint.Align align = paint.getTextAlign();
+        if (align == Paint.Align.CENTER) {
+            mSvg.append(" text-anchor=\"middle\"");
+        } else if (align == Paint.Align.RIGHT) {
+            mSvg.append(" text-anchor=\"end\"");
+        }
+        appendColor("fill", paint.getColor());
+        mSvg.append('>');
+        appendEscaped(text);
+        mSvg.append("</text>\n");
+    }
+
+    @Override
+    public void drawDrawable(Drawable drawable, int left, int top, int right, int bottom) {
+        if (drawable instanceof ColorDrawable) {
+            mSvg.append("<rect x=\"").append(left).append("\" y=\"").append(top)
+                    .append("\" width=\"").append(right - left).append("\" height=\"").append(bottom - top).append('"');
+            appendColor("fill", ((ColorDrawable) drawable).getColor());
+        } else {
+            mSvg.append("<circle cx=\"").append((left + right) / 2f).append("\" cy=\"").append((top + bottom) / 2f)
+                    .append("\" r=\"").append(Math.min(right - left, bottom - top) / 2f).append('"');
+            appendColor("fill", mDecorationColor);
+        }
+        mSvg.append("/>\n");
+    }
+
+    @Override
+    public int save() {
+        if (mSaveCount == mOpenGroups.length) {
+            mOpenGroups = Arrays.copyOf(mOpenGroups, mOpenGroups.length * 2);
+        }
+        mOpenGroups[mSaveCount] = 0;
+        return mSaveCount++;
+    }
+
+    @Override
+    public void clipRect(float left, float top, float right, float bottom) {
+        // Nested groups intersect their clips, like a canvas does
+        int clipId = mClipIds++;
+        mSvg.append("<clipPath id=\"clip").append(clipId).append("\"><rect x=\"").append(left)
+                .append("\" y=\"").append(top).append("\" width=\"").append(right - left)
+                .append("\" height=\"").append(bottom - top).append("\"/></clipPath>\n");
+        mSvg.append("<g clip-path=\"url(#clip").append(clipId).append(")\">\n");
+        mOpenGroups[mSaveCount - 1]++;
+    }
+
+    @Override
+    public void restoreToCount(int saveCount) {
+        while (mSaveCount > Math.max(saveCount, 1)) {
+            mSaveCount--;
+            closeGroups(mSaveCount);
+        }
+    }
+
+    private void closeGroups(int saveLevel) {
+        for (int i = 0; i < mOpenGroups[saveLevel]; i++) {
+            mSvg.append("</g>\n");
+        }
+        mOpenGroups[saveLevel] = 0;
+    }
+
+    private void appendPaint(Paint paint) {
+        if (paint.getStyle() == Paint.Style.STROKE) {
+            mSvg.append(" fill=\"none\"");
+            appendColor("stroke", paint.getColor());
+            mSvg.append(" stroke-width=\"").append(Math.max(paint.getStrokeWidth(), 1)).append('"');
+        } else {
+            appendColor("fill", paint.getColor());
+        }
+    }
+
+    private void appendColor(String attribute, int color) {
+        mSvg.append(' ').append(attribute).append("=\"#");
+        String rgb = Integer.toHexString(color & 0xFFFFFF);
+        for (int i = rgb.length(); i < 6; i++) {
+            mSvg.append('0');
+        }
+        mSvg.append(rgb).append('"');
+
+        int alpha = color >>> 24;
+        if (alpha != 0xFF) {
+            mSvg.append(' ').append(attribute).append("-opacity=\"").append(alpha / 255f).append('"');
+        }
+    }
+
+    private void appendEscaped(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char character = text.charAt(i);
+            switch (character) {
+                case '<':
+                    mSvg.append("&lt;");
+                    break;
+                case '>':
+                    mSvg.append("&gt;");
+                    break;
+                case '&':
+                    mSvg.append("&amp;");
+                    break;
+                case '"':
+                    mSvg.append("&quot;");
+                    break;
+                default:
+                    mSvg.append(character);
+            }
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.sickmartian.calendarview;
 
 import android.content.Context;
-import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.PorterDuff;
@@ -20,22 +19,39 @@ import java.util.Calendar;
  * Created by sickmartian on 11/24/2015.
  */
 public class WeekView extends CalendarView implements GestureDetector.OnGestureListener {
+    // Defaults, for a single week
     public static final int ROWS = 1;
     public static final int DAYS_IN_GRID = 7;
+    public static final int MAX_WEEKS = MAX_SELECTABLE_CELLS / DAYS_IN_WEEK;
 
     // User set state
-    ArrayList<ArrayList<View>> mChildInDays;
+    CellContent mChildInDays;
     int mCurrentCell;
     int mSelectedCell = INITIAL;
     DayMetadata mDay;
+    int mWeekCount;
 
     // Things we calculate and use to draw
-    RectF[] mDayCells = new RectF[DAYS_IN_GRID];
-    DayMetadata[] mDayMetadata = new DayMetadata[DAYS_IN_GRID];
+    RectF[] mDayCells;
+    DayMetadata[] mDayMetadata;
+    int mFirstDayKey;
     ArrayList<Integer> mCellsWithOverflow;
 
     public WeekView(Context context, AttributeSet attrs) {
         super(context, attrs);
+        setupGrid(ROWS);
+    }
+
+    public WeekView(Context context, CalendarStyle style) {
+        super(context, style);
+        setupGrid(ROWS);
+    }
+
+    private void setupGrid(int weekCount) {
+        mWeekCount = weekCount;
+        mDayCells = new RectF[weekCount * DAYS_IN_WEEK];
+        mDayMetadata = new DayMetadata[weekCount * DAYS_IN_WEEK];
+        removeAllContent();
     }
 
     private void setDateInternal(DayMetadata dayMetadata) {
@@ -55,8 +71,10 @@ public class WeekView extends CalendarView implements GestureDetector.OnGestureL
         int givenDayDifferentToStart = ( anyDayOfTheWeek + mFirstDayOfTheWeekShift ) % DAYS_IN_WEEK;
         firstDayOfWeek.add(Calendar.DATE, givenDayDifferentToStart * -1);
 
+        mFirstDayKey = DayKey.of(firstDayOfWeek);
+
         int lastDay;
-        for (int i = 0; i < DAYS_IN_GRID; i++) {
+        for (int i = 0; i < getCellCount(); i++) {
             lastDay = firstDayOfWeek.get(Calendar.DATE);
             mDayMetadata[i] = new DayMetadata(firstDayOfWeek.get(Calendar.YEAR),
                     firstDayOfWeek.get(Calendar.MONTH) + 1,
@@ -73,20 +91,20 @@ public class WeekView extends CalendarView implements GestureDetector.OnGestureL
         removeAllViews();
 
         mCellsWithOverflow = new ArrayList<>();
-        mChildInDays = new ArrayList<>();
-        for (int i = 0; i < DAYS_IN_GRID; i++) {
-            mChildInDays.add(i, new ArrayList<View>());
+        // Kept while the cell count stays the same, so loading again doesn't allocate
+        if (mChildInDays == null || mChildInDays.getCellCount() != getCellCount()) {
+            mChildInDays = new CellContent(getCellCount());
+        } else {
+            mChildInDays.clear();
         }
     }
 
     public void addViewToCell(int cellNumber, View viewToAppend) {
-        if (cellNumber < 0 || cellNumber > DAYS_IN_GRID) return;
+        if (cellNumber < 0 || cellNumber >= getCellCount()) return;
 
         addView(viewToAppend);
 
-        ArrayList<View> dayArray = mChildInDays.get(cellNumber);
-        dayArray.add(viewToAppend);
-        mChildInDays.set(cellNumber, dayArray);
+        mChildInDays.add(cellNumber, viewToAppend);
 
         invalidate();
     }
@@ -95,131 +113,60 @@ public class WeekView extends CalendarView implements GestureDetector.OnGestureL
     public void addViewToDay(DayMetadata dayMetadata, View viewToAppend) {
         if (dayMetadata == null) return;
 
-        int cell = 0;
-        for (DayMetadata metadata : mDayMetadata) {
-            if (dayMetadata.equals(metadata)) {
-                addViewToCell(cell, viewToAppend);
-                break;
-            }
-            cell++;
-        }
-
+        addViewToDayKey(dayMetadata.toDayKey(), viewToAppend);
     }
 
     public void setCurrentDay(Calendar currentDay) {
-        if (currentDay == null && mCurrentCell != INITIAL) {
-            mCurrentCell = INITIAL;
-            invalidate();
-            return;
-        } else if (currentDay == null) {
-            return;
-        }
-
-        // Only mark and invalidate if it corresponds to our cells
-        int i = 0;
-        for (DayMetadata metadata : mDayMetadata) {
-            if (metadata.day == currentDay.get(Calendar.DATE) &&
-                    metadata.month == currentDay.get(Calendar.MONTH) + 1 &&
-                    metadata.year == currentDay.get(Calendar.YEAR)) {
-                mCurrentCell = i;
-                invalidate();
-                return;
-            }
-            i++;
-        }
-
-        if (mCurrentCell != INITIAL) {
-            mCurrentCell = INITIAL;
-            invalidate();
-        }
+        setCurrentDayKey(currentDay == null ? DayKey.NONE : DayKey.of(currentDay));
     }
 
     public void setCurrentDay(DayMetadata currentDay) {
-        if (currentDay == null && mCurrentCell != INITIAL) {
-            mCurrentCell = INITIAL;
-            invalidate();
-            return;
-        } else if (currentDay == null) {
-            return;
-        }
-
-        // Only mark and invalidate if it corresponds to our cells
-        int i = 0;
-        for (DayMetadata metadata : mDayMetadata) {
-            if (metadata.equals(currentDay)) {
-                mCurrentCell = i;
-                invalidate();
-                return;
-            }
-            i++;
-        }
+        setCurrentDayKey(currentDay == null ? DayKey.NONE : currentDay.toDayKey());
+    }
 
-        if (mCurrentCell != INITIAL) {
-            mCurrentCell = INITIAL;
+    public void setCurrentDayKey(int dayKey) {
+        // Only mark and invalidate if it corresponds to our cells or we had one before
+        int cell = getCellForDayKey(dayKey);
+        if (cell != mCurrentCell) {
+            mCurrentCell = cell;
             invalidate();
         }
     }
 
     public void setSelectedDay(Calendar selectedDay) {
-        if (selectedDay == null && mSelectedCell != INITIAL) {
-            mSelectedCell = INITIAL;
-            invalidate();
-            return;
-        } else if (selectedDay == null) {
-            return;
-        }
-
-        // Only mark and invalidate if it corresponds to our cells
-        int i = 0;
-        for (DayMetadata metadata : mDayMetadata) {
-            if (metadata.day == selectedDay.get(Calendar.DATE) &&
-                    metadata.month == selectedDay.get(Calendar.MONTH) + 1 &&
-                    metadata.year == selectedDay.get(Calendar.YEAR)) {
-                mSelectedCell = i;
-                invalidate();
-                return;
-            }
-            i++;
-        }
-
-        if (mSelectedCell != INITIAL) {
-            mSelectedCell = INITIAL;
-            invalidate();
-        }
+        setSelectedDayKey(selectedDay == null ? DayKey.NONE : DayKey.of(selectedDay));
     }
 
     public void setSelectedDay(DayMetadata selectedDay) {
-        if (selectedDay == null && mSelectedCell != INITIAL) {
-            mSelectedCell = INITIAL;
-            invalidate();
-            return;
-        } else if (selectedDay == null) {
-            return;
-        }
-
-        // Only mark and invalidate if it corresponds to our cells
-        int i = 0;
-        for (DayMetadata metadata : mDayMetadata) {
-            if (metadata.equals(selectedDay)) {
-                mSelectedCell = i;
-                invalidate();
-                return;
-            }
-            i++;
-        }
+        setSelectedDayKey(selectedDay == null ? DayKey.NONE : selectedDay.toDayKey());
+    }
 
-        if (mSelectedCell != INITIAL) {
-            mSelectedCell = INITIAL;
+    public void setSelectedDayKey(int dayKey) {
+        // Only mark and invalidate if it corresponds to our cells or we had one before
+        int cell = getCellForDayKey(dayKey);
+        if (cell != mSelectedCell) {
+            mSelectedCell = cell;
             invalidate();
         }
     }
 
     public void setDate(DayMetadata dayMetadata) {
+        onDaysChanging();
+        if (mDay != null && retainContent(mFirstDayKey, mChildInDays)) {
+            mChildInDays = null; // Belongs to the cache now
+        }
         mDay = dayMetadata;
 
         setSelectedDay((DayMetadata) null);
+        clearSelection();
         removeAllContent();
         sharedSetDate();
+
+        CellContent retainedContent = restoreRetainedContent(mFirstDayKey, getCellCount());
+        if (retainedContent != null) {
+            mChildInDays = retainedContent;
+        }
+        onDaysChanged(retainedContent != null);
     }
 
     public DayMetadata getSelectedDay() {
@@ -229,63 +176,179 @@ public class WeekView extends CalendarView implements GestureDetector.OnGestureL
         return mDayMetadata[mSelectedCell];
     }
 
+    public int getSelectedDayKey() {
+        if (mSelectedCell == INITIAL) {
+            return DayKey.NONE;
+        }
+        return mFirstDayKey + mSelectedCell;
+    }
+
     public int getSelectedCell() {
         return mSelectedCell;
     }
 
     public void setFirstDayOfTheWeek(int firstDayOfTheWeekShift) {
         if (mFirstDayOfTheWeekShift != firstDayOfTheWeekShift) {
+            onDaysChanging();
             mFirstDayOfTheWeekShift = firstDayOfTheWeekShift;
+            clearSelection(); // Cells will show other days
 
             // Apply changes
-            mWeekDays = getWeekdaysForShift(mFirstDayOfTheWeekShift); // Reset weekday names
+            mWeekDays = getCachedWeekdaysForShift(mFirstDayOfTheWeekShift); // Reset weekday names
             setDateInternal(mDay); // Reset cells - Invalidates the view
+            onDaysChanged(!mWaitingForContent);
 
             requestLayout();
         }
     }
 
+    /**
+     * Shows weekCount weeks starting on the week of the current date, keeping the content of
+     * the weeks that are still visible
+     */
+    public void setWeekCount(int weekCount) {
+        weekCount = Math.max(1, Math.min(weekCount, MAX_WEEKS));
+        if (weekCount == mWeekCount) return;
+
+        onDaysChanging();
+        int keptCells = Math.min(weekCount, mWeekCount) * DAYS_IN_WEEK;
+        for (int i = keptCells; i < mChildInDays.getCellCount(); i++) {
+            for (int j = 0; j < mChildInDays.getCount(i); j++) {
+                removeView(mChildInDays.get(i, j));
+            }
+        }
+
+        mWeekCount = weekCount;
+        mDayCells = new RectF[weekCount * DAYS_IN_WEEK];
+        mDayMetadata = new DayMetadata[weekCount * DAYS_IN_WEEK];
+        mChildInDays.setCellCount(getCellCount());
+        if (mCurrentCell >= getCellCount()) mCurrentCell = INITIAL;
+        if (mSelectedCell >= getCellCount()) mSelectedCell = INITIAL;
+        setSelectedCells(mSelectedCells & getSelectableCells());
+
+        if (mDay != null) {
+            sharedSetDate();
+        }
+        // Weeks that come into view start empty
+        onDaysChanged(false);
+        requestLayout();
+    }
+
+    public int getWeekCount() {
+        return mWeekCount;
+    }
+
+    /**
+     * Moves the visible weeks, rotating the rows that are still visible with their content
+     * instead of rebuilding them. Only the weeks that come into view start empty.
+     */
+    public void scrollByWeeks(int weeks) {
+        if (weeks == 0 || mDay == null) return;
+
+        int shiftedCells = weeks * DAYS_IN_WEEK;
+        if (Math.abs(weeks) >= mWeekCount) {
+            setDate(DayMetadata.fromDayKey(mDay.toDayKey() + shiftedCells));
+            return;
+        }
+
+        onDaysChanging();
+        // Rows that go out of view wrap around to where the new rows come in, empty them
+        int cellCount = getCellCount();
+        mChildInDays.rotate(-shiftedCells);
+        int firstStaleCell = weeks > 0 ? cellCount - shiftedCells : 0;
+        int lastStaleCell = weeks > 0 ? cellCount : -shiftedCells;
+        for (int i = firstStaleCell; i < lastStaleCell; i++) {
+            for (int j = 0; j < mChildInDays.getCount(i); j++) {
+                removeView(mChildInDays.get(i, j));
+            }
+            mChildInDays.clearCell(i);
+        }
+
+        // Same with the days, only the new ones are calculated
+        if (weeks > 0) {
+            System.arraycopy(mDayMetadata, shiftedCells, mDayMetadata, 0, cellCount - shiftedCells);
+        } else {
+            System.arraycopy(mDayMetadata, 0, mDayMetadata, -shiftedCells, cellCount + shiftedCells);
+        }
+        mFirstDayKey += shiftedCells;
+        mDay = DayMetadata.fromDayKey(mDay.toDayKey() + shiftedCells);
+        for (int i = firstStaleCell; i < lastStaleCell; i++) {
+            mDayMetadata[i] = DayMetadata.fromDayKey(mFirstDayKey + i);
+        }
+
+        // Cell based state moves along
+        mCurrentCell = shiftCell(mCurrentCell, shiftedCells);
+        mSelectedCell = shiftCell(mSelectedCell, shiftedCells);
+        setSelectedCells((weeks > 0 ? mSelectedCells >>> shiftedCells : mSelectedCells << -shiftedCells)
+                & getSelectableCells());
+
+        onDaysChanged(false);
+        requestLayout();
+        invalidate();
+    }
+
+    public void nextWeek() {
+        scrollByWeeks(1);
+    }
+
+    public void previousWeek() {
+        scrollByWeeks(-1);
+    }
+
+    private int shiftCell(int cell, int shiftedCells) {
+        if (cell == INITIAL) return INITIAL;
+
+        int shiftedCell = cell - shiftedCells;
+        return shiftedCell < 0 || shiftedCell >= getCellCount() ? INITIAL : shiftedCell;
+    }
+
     public ArrayList<View> getDayContent(DayMetadata day) {
         if (day != null) {
-            int cell = 0;
-            for (DayMetadata metadata : mDayMetadata) {
-                if (day.equals(metadata)) {
-                    return getCellContent(cell);
-                }
-                cell++;
-            }
+            return getDayKeyContent(day.toDayKey());
         }
         return null;
     }
 
     public void setDayContent(DayMetadata day, ArrayList<View> newContent) {
         if (day != null) {
-            int cell = 0;
-            for (DayMetadata metadata : mDayMetadata) {
-                if (day.equals(metadata)) {
-                    setCellContent(cell, newContent);
-                }
-                cell++;
-            }
+            setDayKeyContent(day.toDayKey(), newContent);
         }
     }
 
     public ArrayList<View> getCellContent(int cellNumber) {
-        if (cellNumber < 0 || cellNumber > DAYS_IN_GRID) return null;
-        return (ArrayList<View>) mChildInDays.get(cellNumber).clone();
+        if (cellNumber < 0 || cellNumber >= getCellCount()) return null;
+        return mChildInDays.toList(cellNumber);
+    }
+
+    public int getCellContentCount(int cellNumber) {
+        if (cellNumber < 0 || cellNumber >= getCellCount()) return 0;
+        return mChildInDays.getCount(cellNumber);
+    }
+
+    public View getCellContentAt(int cellNumber, int index) {
+        if (index < 0 || index >= getCellContentCount(cellNumber)) return null;
+        return mChildInDays.get(cellNumber, index);
+    }
+
+    /**
+     * Goes through the content of a cell without copying it
+     */
+    public void forEachInCell(int cellNumber, CellContent.Visitor visitor) {
+        if (cellNumber < 0 || cellNumber >= getCellCount()) return;
+        mChildInDays.forEachInCell(cellNumber, visitor);
     }
 
     public void setCellContent(int cellNumber, ArrayList<View> newContent) {
-        if (cellNumber < 0 || cellNumber > DAYS_IN_GRID) return;
+        if (cellNumber < 0 || cellNumber >= getCellCount()) return;
 
         // Add new views and remove discarded views
-        ArrayList<View> oldContent = mChildInDays.get(cellNumber);
         for (View newView : newContent) {
-            if (!(oldContent.contains(newView))) {
+            if (!mChildInDays.contains(cellNumber, newView)) {
                 addView(newView);
             }
         }
-        for (View oldView : oldContent) {
+        for (int i = 0; i < mChildInDays.getCount(cellNumber); i++) {
+            View oldView = mChildInDays.get(cellNumber, i);
             if (!(newContent.contains(oldView))) {
                 removeView(oldView);
             }
@@ -296,6 +359,26 @@ public class WeekView extends CalendarView implements GestureDetector.OnGestureL
         requestLayout();
     }
 
+    public int getCellCount() {
+        return mWeekCount * DAYS_IN_WEEK;
+    }
+
+    @Override
+    protected RectF[] getDayCells() {
+        return mDayCells;
+    }
+
+    public int getDayKeyForCell(int cellNumber) {
+        if (cellNumber < 0 || cellNumber >= getCellCount()) return DayKey.NONE;
+
+        return mFirstDayKey + cellNumber;
+    }
+
+    @Override
+    protected DayMetadata getDayMetadataForCell(int cellNumber) {
+        return mDayMetadata[cellNumber];
+    }
+
     @SuppressWarnings("unused")
     public DayMetadata getFirstDay() {
         if (mDayMetadata == null) return null;
@@ -336,18 +419,23 @@ public class WeekView extends CalendarView implements GestureDetector.OnGestureL
         setMeasuredDimension(w, h);
 
         // Measure child layouts if we have
-        recalculateCells(w, h, mDayCells, ROWS);
+        recalculateCells(w, h, mDayCells, mWeekCount);
         if (mDayCells.length == 0 || mDayCells[0] == null) return;
 
-        for (int i = 0; i < DAYS_IN_GRID; i++) {
-            ArrayList<View> childArrayForDay = mChildInDays.get(i);
-            for (int j = 0; j < childArrayForDay.size(); j++) {
-                View viewToPlace = childArrayForDay.get(j);
-                if (viewToPlace.getVisibility() != GONE) {
-                    int wSpec = MeasureSpec.makeMeasureSpec(Math.round(mDayCells[i].width()), MeasureSpec.EXACTLY);
-                    int hSpec = MeasureSpec.makeMeasureSpec(Math.round(mDayCells[i].height() - mEndOfHeaderWithWeekday), MeasureSpec.AT_MOST);
-                    viewToPlace.measure(wSpec, hSpec);
-                }
+        for (int i = 0; i < getCellCount(); i++) {
+            measureCell(i);
+        }
+    }
+
+    @Override
+    protected void measureCell(int cellNumber) {
+        float alreadyUsedTop = cellNumber < DAYS_IN_WEEK ? mEndOfHeaderWithWeekday : mEndOfHeaderWithoutWeekday;
+        for (int j = 0; j < mChildInDays.getCount(cellNumber); j++) {
+            View viewToPlace = mChildInDays.get(cellNumber, j);
+            if (viewToPlace.getVisibility() != GONE) {
+                int wSpec = MeasureSpec.makeMeasureSpec(Math.round(mDayCells[cellNumber].width()), MeasureSpec.EXACTLY);
+                int hSpec = MeasureSpec.makeMeasureSpec(Math.round(mDayCells[cellNumber].height() - alreadyUsedTop), MeasureSpec.AT_MOST);
+                viewToPlace.measure(wSpec, hSpec);
             }
         }
     }
@@ -357,80 +445,100 @@ public class WeekView extends CalendarView implements GestureDetector.OnGestureL
         super.onLayout(changed, l, t, r, b);
 
         mCellsWithOverflow.clear();
-        float topOffset;
-        for (int i = 0; i < DAYS_IN_GRID; i++) {
-            ArrayList<View> childArrayForDay = mChildInDays.get(i);
-            topOffset = mEndOfHeaderWithWeekday;
-
-            int cellBottom = (int) (mDayCells[i].bottom - mOverflowHeight);
-            for (int j = 0; j < childArrayForDay.size(); j++) {
-                View viewToPlace = childArrayForDay.get(j);
-                if (viewToPlace.getVisibility() != GONE) {
-
-                    // If we overflow the cell, crop the view
-                    int proposedItemBottom = (int) (mDayCells[i].top + topOffset + viewToPlace.getMeasuredHeight());
-                    if (proposedItemBottom >= cellBottom) {
-                        proposedItemBottom = cellBottom;
-                    }
-
-                    viewToPlace.layout(
-                            (int) mDayCells[i].left,
-                            (int) (mDayCells[i].top + topOffset),
-                            (int) mDayCells[i].right,
-                            proposedItemBottom
-                    );
-
-                    topOffset += viewToPlace.getMeasuredHeight();
-
-                    // If we don't have more space below, stop drawing them
-                    if (proposedItemBottom == cellBottom) {
-                        mCellsWithOverflow.add(i);
-                        break;
-                    }
+        mChildHitIndex.reset(getCellCount());
+        for (int i = 0; i < getCellCount(); i++) {
+            layoutCell(i);
+        }
+    }
+
+    @Override
+    protected void layoutCell(int cellNumber) {
+        mChildHitIndex.clearCell(cellNumber);
+        mCellsWithOverflow.remove(Integer.valueOf(cellNumber));
+
+        float topOffset = cellNumber < DAYS_IN_WEEK ? mEndOfHeaderWithWeekday : mEndOfHeaderWithoutWeekday;
+        int cellBottom = (int) (mDayCells[cellNumber].bottom - mOverflowHeight);
+        for (int j = 0; j < mChildInDays.getCount(cellNumber); j++) {
+            View viewToPlace = mChildInDays.get(cellNumber, j);
+            if (viewToPlace.getVisibility() != GONE) {
+
+                // If we overflow the cell, crop the view
+                int proposedItemBottom = (int) (mDayCells[cellNumber].top + topOffset + viewToPlace.getMeasuredHeight());
+                if (proposedItemBottom >= cellBottom) {
+                    proposedItemBottom = cellBottom;
+                } else if (viewToPlace.getVisibility() == VISIBLE) {
+                    // Only whole views can be tapped
+                    mChildHitIndex.add(cellNumber, (int) (mDayCells[cellNumber].top + topOffset), proposedItemBottom, viewToPlace);
+                }
+
+                viewToPlace.layout(
+                        (int) mDayCells[cellNumber].left,
+                        (int) (mDayCells[cellNumber].top + topOffset),
+                        (int) mDayCells[cellNumber].right,
+                        proposedItemBottom
+                );
+
+                topOffset += viewToPlace.getMeasuredHeight();
+
+                // If we don't have more space below, stop drawing them
+                if (proposedItemBottom == cellBottom) {
+                    mCellsWithOverflow.add(cellNumber);
+                    break;
                 }
             }
         }
     }
 
     @Override
-    protected void onDraw(Canvas canvas) {
-        super.onDraw(canvas);
+    protected boolean moveChildBetweenCells(View child, int fromCell, int toCell) {
+        if (fromCell < 0 || fromCell >= getCellCount() || toCell < 0 || toCell >= getCellCount()) return false;
+        if (!mChildInDays.remove(fromCell, child)) return false;
 
-        if (getWidth() == 0 || getHeight() == 0) return; // Never got measured, nothing to draw
+        mChildInDays.add(toCell, child);
+        return true;
+    }
 
-        canvas.drawPaint(mActiveBackgroundColor);
-        drawSelectedCell(canvas, mDayCells, mSelectedCell);
+    @Override
+    protected void drawCalendar(CalendarRenderer renderer) {
+        renderer.drawPaint(mActiveBackgroundColor);
+        drawSelectedCell(renderer, mDayCells, mSelectedCell);
+        drawSelectedCells(renderer, mDayCells, mSelectedCells);
+        drawDropTarget(renderer, mDayCells);
 
         // Weekdays and day numbers
-        float topOffset = mBetweenSiblingsPadding * 2 + mSingleLetterHeight;
-        for (int i = 0; i < DAYS_IN_GRID; i++) {
+        for (int i = 0; i < getCellCount(); i++) {
             // Current day might have a decoration
             if (mCurrentCell == i && mCurrentDayDrawable != null) {
                 // Decoration
-                mCurrentDayDrawable.setBounds(
+                float topOffset = mBetweenSiblingsPadding;
+                if (i < DAYS_IN_WEEK) {
+                    topOffset += mBetweenSiblingsPadding + mSingleLetterHeight;
+                }
+                renderer.drawDrawable(mCurrentDayDrawable,
                         (int) (mDayCells[i].left + mBetweenSiblingsPadding),
                         (int) (mDayCells[i].top + topOffset),
                         (int) (mDayCells[i].left + mBetweenSiblingsPadding + mDecorationSize),
                         (int) (mDayCells[i].top + mDecorationSize + topOffset));
-                mCurrentDayDrawable.draw(canvas);
 
-                drawDayTextsInCell(canvas, i, mDayCells, mCurrentDayTextColor, mActiveTextColor, mDayMetadata);
+                drawDayTextsInCell(renderer, i, mDayCells, mCurrentDayTextColor, mActiveTextColor, mDayMetadata);
             } else {
-                drawDayTextsInCell(canvas, i, mDayCells, mActiveTextColor, mActiveTextColor, mDayMetadata);
+                drawDayTextsInCell(renderer, i, mDayCells, mActiveTextColor, mActiveTextColor, mDayMetadata);
             }
         }
 
-        drawOverflow(canvas, mCellsWithOverflow, mDayCells);
+        drawOverflow(renderer, mCellsWithOverflow, mDayCells);
+        drawMarkers(renderer, mDayCells);
 
-        drawVerticalSeparation(canvas, mDayCells);
-    }
+        // Separation lines between weeks
+        for (int row = 1; row < mWeekCount; row++) {
+            float top = mDayCells[row * DAYS_IN_WEEK].top;
+            renderer.drawLine(0, top, getWidth(), top, mSeparationPaint);
+        }
 
-    // Interaction
-    @Override
-    public boolean onTouchEvent(MotionEvent event) {
-        return mDetector.onTouchEvent(event);
+        drawVerticalSeparation(renderer, mDayCells);
     }
 
+    // Interaction
     @Override
     public boolean onInterceptTouchEvent(MotionEvent ev) {
         return true;
@@ -438,43 +546,44 @@ public class WeekView extends CalendarView implements GestureDetector.OnGestureL
 
     @Override
     public boolean onDown(MotionEvent e) {
+        startRangeSelection(e);
         return true;
     }
 
     public DayMetadata getCellFromLocation(float x, float y) {
-        for (int i = 0; i < mDayCells.length; i++) {
-            if (mDayCells[i].contains(x, y)) {
-                return mDayMetadata[i];
-            }
+        int cell = getCellNumberFromLocation(x, y);
+        if (cell != INITIAL) {
+            return mDayMetadata[cell];
         }
         return null;
     }
 
     @Override
     public boolean onSingleTapUp(MotionEvent e) {
-        if (mDaySelectionListener != null) {
-            DayMetadata currentDay = getCellFromLocation(e.getX(), e.getY());
-            if (currentDay != null) {
-                mDaySelectionListener.onTapEnded(this, currentDay);
-                return true;
-            }
+        if (notifyChildTapped(e.getX(), e.getY())) return true;
+
+        toggleMultipleSelection(e);
+
+        int cell = getCellNumberFromLocation(e.getX(), e.getY());
+        if (cell != INITIAL) {
+            return notifyTapEnded(cell);
         }
         return false;
     }
 
     @Override
     public void onLongPress(MotionEvent e) {
-        if (mDaySelectionListener != null) {
-            DayMetadata currentDay = getCellFromLocation(e.getX(), e.getY());
-            if (currentDay != null) {
-                mDaySelectionListener.onLongClick(this, currentDay);
-            }
+        if (startChildDrag(e)) return;
+
+        int cell = getCellNumberFromLocation(e.getX(), e.getY());
+        if (cell != INITIAL) {
+            notifyLongClick(cell);
         }
     }
 
     @Override
     public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
-        return false;
+        return extendRangeSelection(e2);
     }
 
     @Override
@@ -493,10 +602,12 @@ public class WeekView extends CalendarView implements GestureDetector.OnGestureL
         Parcelable superState = super.onSaveInstanceState();
         MyOwnState myOwnState = new MyOwnState(superState);
         myOwnState.mDay = mDay;
+        myOwnState.mWeekCount = mWeekCount;
         myOwnState.mCurrentCell = mCurrentCell;
         myOwnState.mSelectedCell = mSelectedCell;
         myOwnState.mLastKnownWidth = mLastKnownWidth;
         myOwnState.mLastKnownHeight = mLastKnownHeight;
+        myOwnState.mContentSnapshot = createContentSnapshot();
         return myOwnState;
     }
 
@@ -510,20 +621,24 @@ public class WeekView extends CalendarView implements GestureDetector.OnGestureL
         MyOwnState myOwnState = (MyOwnState) state;
         super.onRestoreInstanceState(myOwnState.getSuperState());
 
+        setWeekCount(myOwnState.mWeekCount);
         setDateInternal(myOwnState.mDay);
         mCurrentCell = myOwnState.mCurrentCell;
         mSelectedCell = myOwnState.mSelectedCell;
         mLastKnownWidth = myOwnState.mLastKnownWidth;
         mLastKnownHeight = myOwnState.mLastKnownHeight;
-        recalculateCells(mLastKnownWidth, mLastKnownHeight, mDayCells, ROWS);
+        recalculateCells(mLastKnownWidth, mLastKnownHeight, mDayCells, mWeekCount);
+        restoreContentSnapshot(myOwnState.mContentSnapshot);
     }
 
     private static class MyOwnState extends BaseSavedState {
         int mCurrentCell;
         int mSelectedCell;
         DayMetadata mDay;
+        int mWeekCount;
         int mLastKnownWidth;
         int mLastKnownHeight;
+        ContentSnapshot mContentSnapshot;
 
         MyOwnState(Parcelable superState) {
             super(superState);
@@ -539,6 +654,8 @@ public class WeekView extends CalendarView implements GestureDetector.OnGestureL
             mSelectedCell = in.readInt();
             mLastKnownWidth = in.readInt();
             mLastKnownHeight = in.readInt();
+            mWeekCount = in.readInt();
+            mContentSnapshot = in.readParcelable(ContentSnapshot.class.getClassLoader());
         }
 
         @Override
@@ -551,6 +668,8 @@ public class WeekView extends CalendarView implements GestureDetector.OnGestureL
             out.writeInt(mSelectedCell);
             out.writeInt(mLastKnownWidth);
             out.writeInt(mLastKnownHeight);
+            out.writeInt(mWeekCount);
+            out.writeParcelable(mContentSnapshot, flags);
         }
 
         public static final Creator<MyOwnState> CREATOR =
@@ -0,0 +1,92 @@
+package com.sickmartian.calendarview;
+
+import android.util.AttributeSet;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 27)
+public class MonthViewRenderBudgetTest extends RenderBudgetTestCase {
+
+    MonthView mView;
+
+    @Before
+    public void setUp() {
+        mView = new MonthView(mContext, (AttributeSet) null);
+        mView.setDate(3, 2016);
+        mView.setCurrentDayKey(DayKey.of(2016, 3, 15));
+        settle(mView);
+    }
+
+    @Test
+    public void frame() {
+        startOperation(mView);
+        frame(mView);
+        endOperation("month.frame");
+    }
+
+    @Test
+    public void frameWithOverflow() {
+        mView.setShowOverflow(true);
+        View[] content = createContent(2);
+        mView.addViewToDayKey(DayKey.of(2016, 3, 10), content[0]);
+        mView.addViewToDayKey(DayKey.of(2016, 3, 10), content[1]);
+        settle(mView);
+        assertFalse(mView.mCellsWithOverflow.isEmpty());
+
+        startOperation(mView);
+        frame(mView);
+        endOperation("month.frameWithOverflow");
+    }
+
+    @Test
+    public void selection() {
+        mView.setSelectionMode(CalendarView.SELECTION_MULTIPLE);
+        settle(mView);
+
+        startOperation(mView);
+        mView.setCellSelected(10, true);
+        mView.setCellSelected(11, true);
+        frame(mView);
+        endOperation("month.selection");
+        assertTrue(mView.isCellSelected(10));
+
+        startOperation(mView);
+        mView.setSelectionMode(CalendarView.SELECTION_SINGLE);
+        mView.setSelectedDayKey(DayKey.of(2016, 3, 20));
+        frame(mView);
+        endOperation("month.selection");
+    }
+
+    @Test
+    public void paging() {
+        for (int month = 4; month <= 12; month++) {
+            startOperation(mView);
+            mView.setDate(month, 2016);
+            frame(mView);
+            endOperation("month.paging");
+        }
+    }
+
+    @Test
+    public void contentLoad() {
+        View[] content = createContent(31);
+
+        startOperation(mView);
+        for (int day = 1; day <= 31; day++) {
+            mView.addViewToDayKey(DayKey.of(2016, 3, day), content[day - 1]);
+        }
+        frame(mView);
+        endOperation("month.contentLoad");
+        assertEquals(31, mView.getChildCount());
+    }
+}
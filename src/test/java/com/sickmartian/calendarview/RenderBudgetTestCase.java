@@ -0,0 +1,103 @@
+package com.sickmartian.calendarview;
+
+import android.content.Context;
+import android.view.View;
+
+import org.junit.Before;
+import org.robolectric.RuntimeEnvironment;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drives a view through operations and checks them against the budgets checked in at
+ * render_budgets.properties. A frame measures and lays out only if something asked for it,
+ * like the view hierarchy does, and renders into a {@link RecordingRenderer}: a canvas under
+ * Robolectric allocates on its own.
+ */
+abstract class RenderBudgetTestCase {
+    static final int WIDTH = 1080;
+    static final int HEIGHT = 1200;
+    private static final String BUDGETS = "render_budgets.properties";
+    private static Properties sBudgets;
+
+    Context mContext;
+    RenderStats mStats;
+    RecordingRenderer mRenderer;
+
+    @Before
+    public void setUpStats() {
+        mContext = RuntimeEnvironment.application;
+        mStats = new RenderStats(new ThreadAllocationCounter());
+        mRenderer = new RecordingRenderer(WIDTH, HEIGHT);
+    }
+
+    void frame(CalendarView view) {
+        if (view.isLayoutRequested()) {
+            view.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+            view.layout(0, 0, WIDTH, HEIGHT);
+        }
+        mRenderer.reset();
+        view.render(mRenderer);
+    }
+
+    /**
+     * Lays out and renders until nothing changes, so the first time code paths run
+     * (class loading, lazy caches) is not part of an operation
+     */
+    void settle(CalendarView view) {
+        for (int i = 0; i < 3; i++) {
+            frame(view);
+        }
+    }
+
+    void startOperation(CalendarView view) {
+        view.setRenderStats(mStats);
+        mStats.startOperation();
+    }
+
+    RenderStats.Sample endOperation(String operation) {
+        return mStats.endOperation(operation, getBudget(operation));
+    }
+
+    static synchronized RenderStats.Budget getBudget(String operation) {
+        if (sBudgets == null) {
+            sBudgets = new Properties();
+            InputStream budgets = RenderBudgetTestCase.class.getClassLoader().getResourceAsStream(BUDGETS);
+            assertNotNull(BUDGETS + " is missing", budgets);
+            try {
+                sBudgets.load(budgets);
+                budgets.close();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        String budget = sBudgets.getProperty(operation);
+        assertNotNull("No budget for " + operation, budget);
+        String[] values = budget.split(",");
+        long maxAllocatedBytes = Long.parseLong(values[3].trim());
+        // Every operation guards its allocations
+        assertTrue("No byte budget for " + operation, maxAllocatedBytes >= 0);
+        return new RenderStats.Budget(Integer.parseInt(values[0].trim()),
+                Integer.parseInt(values[1].trim()),
+                Integer.parseInt(values[2].trim()),
+                maxAllocatedBytes);
+    }
+
+    /**
+     * Views that take all the height they are offered, two of them overflow any cell
+     */
+    View[] createContent(int count) {
+        View[] views = new View[count];
+        for (int i = 0; i < count; i++) {
+            views[i] = new View(mContext);
+        }
+        return views;
+    }
+}
@@ -0,0 +1,276 @@
+package com.sickmartian.calendarview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.view.View;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Feeds a {@link SyntheticCalendar} through the content methods of a view while paging,
+ * selecting and scrolling, and reports how many operations per second it managed and how long
+ * they took. Every operation includes a synchronous measure, layout and draw into an offscreen
+ * bitmap, so results don't depend on the frame rate.
+ * Has to run on the UI thread, with a view that doesn't need to be attached.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class StressHarness {
+
+    public interface EventViewFactory {
+        View createView(CalendarView calendarView, SyntheticCalendar calendar, int event);
+    }
+
+    public static class Report {
+        public final String operation;
+        public final int operations;
+        public final long totalNanos;
+        public final long p50Nanos;
+        public final long p90Nanos;
+        public final long p99Nanos;
+        public final long maxNanos;
+
+        Report(String operation, long[] latencies) {
+            this.operation = operation;
+            this.operations = latencies.length;
+
+            long total = 0;
+            for (long latency : latencies) {
+                total += latency;
+            }
+            this.totalNanos = total;
+
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            this.p50Nanos = getPercentile(sorted, 0.5f);
+            this.p90Nanos = getPercentile(sorted, 0.9f);
+            this.p99Nanos = getPercentile(sorted, 0.99f);
+            this.maxNanos = sorted.length == 0 ? 0 : sorted[sorted.length - 1];
+        }
+
+        private static long getPercentile(long[] sorted, float percentile) {
+            if (sorted.length == 0) return 0;
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+
+        public double getOperationsPerSecond() {
+            return totalNanos == 0 ? 0 : operations * 1e9 / totalNanos;
+        }
+
+        @Override
+        public String toString() {
+            return operation + ": " + operations + " ops, " + Math.round(getOperationsPerSecond()) + " ops/s" +
+                    ", p50 " + p50Nanos / 1000 + "us" +
+                    ", p90 " + p90Nanos / 1000 + "us" +
+                    ", p99 " + p99Nanos / 1000 + "us" +
+                    ", max " + maxNanos / 1000 + "us";
+        }
+    }
+
+    final CalendarView mView;
+    final SyntheticCalendar mCalendar;
+    final EventViewFactory mEventViewFactory;
+    final int mWidthSpec;
+    final int mHeightSpec;
+    final Bitmap mBitmap;
+    final Canvas mCanvas;
+    final Random mRandom;
+
+    // Content loading scratch
+    int mLoadFirstCell;
+    int[] mMarkerOffsets = new int[1];
+    int[] mMarkerColors = new int[64];
+
+    private final DayIntervalIndex.CellVisitor<Integer> mAddViews = new DayIntervalIndex.CellVisitor<Integer>() {
+        @Override
+        public void onCell(int cellNumber, Integer event) {
+            mView.addViewToCell(mLoadFirstCell + cellNumber,
+                    mEventViewFactory.createView(mView, mCalendar, event));
+        }
+    };
+
+    private final DayIntervalIndex.CellVisitor<Integer> mCountMarkers = new DayIntervalIndex.CellVisitor<Integer>() {
+        @Override
+        public void onCell(int cellNumber, Integer event) {
+            mMarkerOffsets[cellNumber + 1]++;
+        }
+    };
+
+    private final DayIntervalIndex.CellVisitor<Integer> mFillMarkers = new DayIntervalIndex.CellVisitor<Integer>() {
+        @Override
+        public void onCell(int cellNumber, Integer event) {
+            // Offsets work as the next free position of each cell while filling
+            mMarkerColors[mMarkerOffsets[cellNumber]++] = mCalendar.getColor(event);
+        }
+    };
+
+    /**
+     * Without a factory, events are loaded as markers instead of views
+     */
+    public StressHarness(CalendarView view, SyntheticCalendar calendar, EventViewFactory eventViewFactory,
+                         int width, int height, long seed) {
+        mView = view;
+        mCalendar = calendar;
+        mEventViewFactory = eventViewFactory;
+        mWidthSpec = View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY);
+        mHeightSpec = View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY);
+        mBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        mCanvas = new Canvas(mBitmap);
+        mRandom = new Random(seed);
+    }
+
+    /**
+     * Moves through the calendar a page at a time (a month, the visible weeks or days),
+     * loading the content of every page
+     */
+    public Report runPaging(int pages) {
+        long[] latencies = new long[Math.max(pages, 0)];
+        int dayKey = mCalendar.getFirstDayKey();
+        int lastDayKey = mCalendar.getFirstDayKey() + mCalendar.getDayCount() - 1;
+        for (int i = 0; i < latencies.length; i++) {
+            long start = System.nanoTime();
+            showDay(dayKey);
+            loadContent(0, mView.getCellCount());
+            renderFrame();
+            latencies[i] = System.nanoTime() - start;
+
+            dayKey = getNextPage(dayKey);
+            if (dayKey > lastDayKey) {
+                dayKey = mCalendar.getFirstDayKey();
+            }
+        }
+        return new Report("paging", latencies);
+    }
+
+    /**
+     * Selects random days of the current page, every third one as a range
+     */
+    public Report runSelection(int selections) {
+        if (mView.getDayKeyForCell(0) == DayKey.NONE) {
+            showDay(mCalendar.getFirstDayKey());
+            loadContent(0, mView.getCellCount());
+        }
+        renderFrame();
+
+        long[] latencies = new long[Math.max(selections, 0)];
+        for (int i = 0; i < latencies.length; i++) {
+            int dayKey = mView.getDayKeyForCell(mRandom.nextInt(mView.getCellCount()));
+
+            long start = System.nanoTime();
+            if (i % 3 == 2) {
+                mView.setSelectedRange(dayKey, dayKey + mRandom.nextInt(CalendarView.DAYS_IN_WEEK));
+            } else {
+                mView.setSelectedDayKey(dayKey);
+            }
+            renderFrame();
+            latencies[i] = System.nanoTime() - start;
+        }
+        return new Report("selection", latencies);
+    }
+
+    /**
+     * Week views scroll a week at a time loading the week coming in, day timelines scroll a
+     * quarter of an hour, and months collapse and expand in steps
+     */
+    public Report runScrolling(int steps) {
+        if (mView.getDayKeyForCell(0) == DayKey.NONE) {
+            showDay(mCalendar.getFirstDayKey());
+            loadContent(0, mView.getCellCount());
+        }
+        renderFrame();
+
+        long[] latencies = new long[Math.max(steps, 0)];
+        for (int i = 0; i < latencies.length; i++) {
+            long start = System.nanoTime();
+            scrollStep(i);
+            renderFrame();
+            latencies[i] = System.nanoTime() - start;
+        }
+        return new Report("scrolling", latencies);
+    }
+
+    private void scrollStep(int step) {
+        if (mView instanceof WeekView) {
+            WeekView weekView = (WeekView) mView;
+            weekView.scrollByWeeks(1);
+            int cellCount = weekView.getCellCount();
+            loadContent(cellCount - CalendarView.DAYS_IN_WEEK, cellCount);
+        } else if (mView instanceof DayTimelineView) {
+            DayTimelineView dayTimelineView = (DayTimelineView) mView;
+            int scrollOffset = dayTimelineView.getScrollOffset();
+            dayTimelineView.setScrollOffset(scrollOffset + (int) (dayTimelineView.getHourHeight() / 4));
+            if (dayTimelineView.getScrollOffset() == scrollOffset) {
+                dayTimelineView.setScrollOffset(0);
+            }
+        } else if (mView instanceof MonthView) {
+            // Back and forth in ten steps
+            int position = step % 20;
+            ((MonthView) mView).setCollapseProgress((position < 10 ? position : 20 - position) / 10f);
+        }
+    }
+
+    private void showDay(int dayKey) {
+        if (mView instanceof MonthView) {
+            ((MonthView) mView).setDate(DayKey.getMonth(dayKey), DayKey.getYear(dayKey));
+        } else if (mView instanceof WeekView) {
+            ((WeekView) mView).setDate(CalendarView.DayMetadata.fromDayKey(dayKey));
+        } else if (mView instanceof DayTimelineView) {
+            ((DayTimelineView) mView).setDate(CalendarView.DayMetadata.fromDayKey(dayKey));
+        }
+    }
+
+    private int getNextPage(int dayKey) {
+        if (mView instanceof MonthView) {
+            int year = DayKey.getYear(dayKey);
+            int month = DayKey.getMonth(dayKey);
+            return month == 12 ? DayKey.of(year + 1, 1, 1) : DayKey.of(year, month + 1, 1);
+        }
+        return dayKey + mView.getCellCount();
+    }
+
+    /**
+     * Loads the events of the cells from firstCell (inclusive) to lastCell (exclusive)
+     */
+    private void loadContent(int firstCell, int lastCell) {
+        int firstDayKey = mView.getDayKeyForCell(0);
+        if (firstDayKey == DayKey.NONE || lastCell <= firstCell) return;
+
+        DayIntervalIndex<Integer> index = mCalendar.getIndex();
+        if (mEventViewFactory != null) {
+            mLoadFirstCell = firstCell;
+            index.assignToCells(firstDayKey + firstCell, lastCell - firstCell, mAddViews);
+            return;
+        }
+
+        // Markers are set for the whole view at once, counted first and filled after
+        int cellCount = mView.getCellCount();
+        if (mMarkerOffsets.length != cellCount + 1) {
+            mMarkerOffsets = new int[cellCount + 1];
+        }
+        Arrays.fill(mMarkerOffsets, 0);
+        index.assignToCells(firstDayKey, cellCount, mCountMarkers);
+        for (int cell = 0; cell < cellCount; cell++) {
+            mMarkerOffsets[cell + 1] += mMarkerOffsets[cell];
+        }
+        if (mMarkerColors.length < mMarkerOffsets[cellCount]) {
+            mMarkerColors = new int[mMarkerOffsets[cellCount]];
+        }
+        index.assignToCells(firstDayKey, cellCount, mFillMarkers);
+
+        // Filling moved every offset to the start of the next cell
+        System.arraycopy(mMarkerOffsets, 0, mMarkerOffsets, 1, cellCount);
+        mMarkerOffsets[0] = 0;
+        mView.setMarkers(firstDayKey, mMarkerOffsets, mMarkerColors);
+    }
+
+    private void renderFrame() {
+        mView.measure(mWidthSpec, mHeightSpec);
+        mView.layout(0, 0, mBitmap.getWidth(), mBitmap.getHeight());
+        mView.draw(mCanvas);
+    }
+
+    public void recycle() {
+        mBitmap.recycle();
+    }
+}
@@ -0,0 +1,124 @@
+package com.sickmartian.calendarview;
+
+import java.util.Calendar;
+import java.util.Random;
+
+/**
+ * Reproducible made up calendar, to load the views with realistic amounts of content.
+ * The same seed always gives the same events. By default there are 100k events over 10 years:
+ * mostly single day events on weekdays, some spanning days, and a few very busy days.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class SyntheticCalendar {
+
+    public static final int DEFAULT_EVENT_COUNT = 100000;
+    public static final int DEFAULT_YEARS = 10;
+
+    // Share of the events of each kind, the rest are single day events
+    private static final float DENSE_DAY_SHARE = 0.15f;
+    private static final float MULTI_DAY_SHARE = 0.15f;
+    private static final int DAYS_PER_DENSE_DAY = 50;
+    private static final int[] CALENDAR_COLORS = {
+            0xFF4285F4, 0xFFDB4437, 0xFFF4B400, 0xFF0F9D58, 0xFFAB47BC, 0xFF00ACC1
+    };
+
+    final int mFirstDayKey;
+    final int mDayCount;
+    final int[] mFirstDayKeys;
+    final int[] mLastDayKeys;
+    final int[] mColors;
+    private DayIntervalIndex<Integer> mIndex;
+
+    private SyntheticCalendar(int firstDayKey, int dayCount, int eventCount) {
+        mFirstDayKey = firstDayKey;
+        mDayCount = dayCount;
+        mFirstDayKeys = new int[eventCount];
+        mLastDayKeys = new int[eventCount];
+        mColors = new int[eventCount];
+    }
+
+    public static SyntheticCalendar generate(long seed) {
+        int firstDayKey = DayKey.of(2015, 1, 1);
+        return generate(seed, DEFAULT_EVENT_COUNT, firstDayKey,
+                DayKey.of(2015 + DEFAULT_YEARS, 1, 1) - firstDayKey);
+    }
+
+    public static SyntheticCalendar generate(long seed, int eventCount, int firstDayKey, int dayCount) {
+        eventCount = Math.max(eventCount, 0);
+        dayCount = Math.max(dayCount, 1);
+        SyntheticCalendar calendar = new SyntheticCalendar(firstDayKey, dayCount, eventCount);
+        Random random = new Random(seed);
+
+        int[] denseDays = new int[Math.max(dayCount / DAYS_PER_DENSE_DAY, 1)];
+        for (int i = 0; i < denseDays.length; i++) {
+            denseDays[i] = firstDayKey + random.nextInt(dayCount);
+        }
+
+        for (int event = 0; event < eventCount; event++) {
+            float kind = random.nextFloat();
+            int first;
+            int length = 1;
+            if (kind < DENSE_DAY_SHARE) {
+                first = denseDays[random.nextInt(denseDays.length)];
+            } else {
+                first = firstDayKey + random.nextInt(dayCount);
+                // Weekends are quieter
+                int dayOfWeek = DayKey.getDayOfWeek(first);
+                if ((dayOfWeek == Calendar.SATURDAY || dayOfWeek == Calendar.SUNDAY) &&
+                        random.nextFloat() < 0.7f) {
+                    first = firstDayKey + random.nextInt(dayCount);
+                }
+
+                if (kind < DENSE_DAY_SHARE + MULTI_DAY_SHARE) {
+                    // Mostly a few days, sometimes a couple of weeks
+                    length = 2 + random.nextInt(3);
+                    if (random.nextFloat() < 0.2f) {
+                        length += random.nextInt(10);
+                    }
+                }
+            }
+
+            calendar.mFirstDayKeys[event] = first;
+            calendar.mLastDayKeys[event] = Math.min(first + length - 1, firstDayKey + dayCount - 1);
+            calendar.mColors[event] = CALENDAR_COLORS[random.nextInt(CALENDAR_COLORS.length)];
+        }
+        return calendar;
+    }
+
+    public int getFirstDayKey() {
+        return mFirstDayKey;
+    }
+
+    public int getDayCount() {
+        return mDayCount;
+    }
+
+    public int getEventCount() {
+        return mFirstDayKeys.length;
+    }
+
+    public int getFirstDayKey(int event) {
+        return mFirstDayKeys[event];
+    }
+
+    public int getLastDayKey(int event) {
+        return mLastDayKeys[event];
+    }
+
+    public int getColor(int event) {
+        return mColors[event];
+    }
+
+    /**
+     * Index of the events by their days, items are the event numbers. Built on first use.
+     */
+    public DayIntervalIndex<Integer> getIndex() {
+        if (mIndex == null) {
+            mIndex = new DayIntervalIndex<>();
+            for (int event = 0; event < mFirstDayKeys.length; event++) {
+                mIndex.add(mFirstDayKeys[event], mLastDayKeys[event], event);
+            }
+        }
+        return mIndex;
+    }
+}
@@ -0,0 +1,22 @@
+package com.sickmartian.calendarview;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Bytes allocated by the thread that created it, as the JVM running the tests counts them
+ */
+final class ThreadAllocationCounter implements RenderStats.AllocationCounter {
+
+    private final com.sun.management.ThreadMXBean mThreadMXBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final long mThreadId = Thread.currentThread().getId();
+
+    ThreadAllocationCounter() {
+        mThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        return mThreadMXBean.getThreadAllocatedBytes(mThreadId);
+    }
+}
@@ -0,0 +1,98 @@
+package com.sickmartian.calendarview;
+
+import android.util.AttributeSet;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 27)
+public class WeekViewRenderBudgetTest extends RenderBudgetTestCase {
+
+    WeekView mView;
+
+    @Before
+    public void setUp() {
+        mView = new WeekView(mContext, (AttributeSet) null);
+        mView.setWeekCount(2);
+        mView.setDate(new CalendarView.DayMetadata(2016, 3, 15));
+        mView.setCurrentDayKey(DayKey.of(2016, 3, 15));
+        settle(mView);
+    }
+
+    @Test
+    public void frame() {
+        startOperation(mView);
+        frame(mView);
+        endOperation("week.frame");
+    }
+
+    @Test
+    public void frameWithOverflow() {
+        mView.setShowOverflow(true);
+        View[] content = createContent(2);
+        mView.addViewToCell(3, content[0]);
+        mView.addViewToCell(3, content[1]);
+        settle(mView);
+        assertFalse(mView.mCellsWithOverflow.isEmpty());
+
+        startOperation(mView);
+        frame(mView);
+        endOperation("week.frameWithOverflow");
+    }
+
+    @Test
+    public void selection() {
+        mView.setSelectionMode(CalendarView.SELECTION_MULTIPLE);
+        settle(mView);
+
+        startOperation(mView);
+        mView.setCellSelected(2, true);
+        mView.setCellSelected(9, true);
+        frame(mView);
+        endOperation("week.selection");
+        assertTrue(mView.isCellSelected(9));
+
+        startOperation(mView);
+        mView.setSelectionMode(CalendarView.SELECTION_SINGLE);
+        mView.setSelectedDayKey(mView.getDayKeyForCell(4));
+        frame(mView);
+        endOperation("week.selection");
+    }
+
+    @Test
+    public void paging() {
+        for (int i = 0; i < 8; i++) {
+            startOperation(mView);
+            mView.nextWeek();
+            frame(mView);
+            endOperation("week.paging");
+        }
+
+        startOperation(mView);
+        mView.setDate(new CalendarView.DayMetadata(2017, 1, 1));
+        frame(mView);
+        endOperation("week.paging");
+    }
+
+    @Test
+    public void contentLoad() {
+        View[] content = createContent(mView.getCellCount());
+
+        startOperation(mView);
+        for (int cell = 0; cell < mView.getCellCount(); cell++) {
+            mView.addViewToCell(cell, content[cell]);
+        }
+        frame(mView);
+        endOperation("week.contentLoad");
+        assertEquals(mView.getCellCount(), mView.getChildCount());
+    }
+}